@@ -0,0 +1,87 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import org.immutables.value.Value;
+
+/**
+ * Configures adaptive eviction of idle connections from the client's connection pool, in addition to the pool's fixed
+ * keep-alive:
+ *
+ * <ul>
+ *   <li>Idle connections to a host are closed once they have been idle for a few times the recently observed gap
+ *       between requests to that host, but never sooner than {@link #minKeepAlive}.
+ *   <li>At most {@link #maxIdleConnectionsPerHost} idle connections are kept per host.
+ *   <li>All idle connections are closed while the process uses more than {@link #fileDescriptorPressureRatio} of its
+ *       file descriptor limit.
+ * </ul>
+ *
+ * <p>The pool is shared, so eviction applies to the connections of every client with this policy that uses it; the
+ * first such client determines the policy.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface AdaptiveConnectionEviction {
+
+    /** Idle connections are never closed for inactivity sooner than this. Defaults to 5 seconds. */
+    @Value.Default
+    default Duration minKeepAlive() {
+        return Duration.ofSeconds(5);
+    }
+
+    /** The maximum number of idle connections kept per host. Defaults to 32. */
+    @Value.Default
+    default int maxIdleConnectionsPerHost() {
+        return 32;
+    }
+
+    /** The fraction of the file descriptor limit above which all idle connections are closed. Defaults to 0.9. */
+    @Value.Default
+    default double fileDescriptorPressureRatio() {
+        return 0.9;
+    }
+
+    @Value.Check
+    default void check() {
+        checkArgument(
+                !minKeepAlive().isNegative(),
+                "minKeepAlive may not be negative",
+                SafeArg.of("minKeepAlive", minKeepAlive()));
+        checkArgument(
+                maxIdleConnectionsPerHost() >= 0,
+                "maxIdleConnectionsPerHost may not be negative",
+                SafeArg.of("maxIdleConnectionsPerHost", maxIdleConnectionsPerHost()));
+        checkArgument(
+                fileDescriptorPressureRatio() > 0 && fileDescriptorPressureRatio() <= 1,
+                "fileDescriptorPressureRatio must be greater than 0 and at most 1",
+                SafeArg.of("fileDescriptorPressureRatio", fileDescriptorPressureRatio()));
+    }
+
+    static AdaptiveConnectionEviction defaults() {
+        return builder().build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableAdaptiveConnectionEviction.Builder {}
+}
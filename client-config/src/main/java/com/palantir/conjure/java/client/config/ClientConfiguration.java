@@ -30,6 +30,7 @@ import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.net.ProxySelector;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.X509TrustManager;
@@ -109,6 +110,98 @@ public interface ClientConfiguration {
     /** Indicates whether client-side sympathetic QoS should be enabled. */
     ClientQoS clientQoS();
 
+    /**
+     * The strategy client-side sympathetic QoS uses to limit the number of concurrent requests to each endpoint.
+     * Defaults to {@link ConcurrencyLimitStrategy#aimd}.
+     */
+    Optional<ConcurrencyLimitStrategy> concurrencyLimitStrategy();
+
+    /**
+     * Overrides of the {@link #concurrencyLimitStrategy} for individual endpoints, keyed by HTTP method and path
+     * template separated by a single space, for example {@code "GET /users/{userId}"}.
+     */
+    Map<String, ConcurrencyLimitStrategy> endpointConcurrencyLimitStrategies();
+
+    /** If present, idempotent GET requests are hedged according to the given policy. Disabled by default. */
+    Optional<HedgingPolicy> hedging();
+
+    /**
+     * If present, retries across all calls made by the client are limited by the given budget, in addition to the
+     * per-call {@link #maxNumRetries}. Unlimited by default.
+     */
+    Optional<RetryBudgetPolicy> retryBudget();
+
+    /**
+     * If true, dispatcher work and retry scheduling run on virtual threads rather than the shared platform thread
+     * pools. Requires JDK 21 or later, and falls back to platform threads on older runtimes. Disabled by default.
+     */
+    Optional<Boolean> enableVirtualThreads();
+
+    /**
+     * If present, the client uses a connection pool and dispatcher dedicated to its service class rather than those
+     * shared by all clients. Shared by default.
+     */
+    Optional<ConnectionIsolation> connectionIsolation();
+
+    /**
+     * If present, this many connections to each of the {@link #uris} are opened in the background when the client is
+     * created, so that the first requests do not pay for the TCP and TLS handshakes. Disabled by default.
+     *
+     * <p>OkHttp can only open a connection for a request, so servers see a {@code HEAD} request to each URI per
+     * connection, carrying the client's user agent but no credentials or trace headers. Servers typically answer these
+     * with an error, which is ignored.
+     */
+    Optional<Integer> warmUpConnectionsPerUri();
+
+    /**
+     * If present, sets the size of the TLS client session cache used by the {@link #sslSocketFactory}, so that new
+     * connections, for example after idle connections are evicted, can resume sessions with an abbreviated handshake.
+     * Note that the cache belongs to the {@link javax.net.ssl.SSLContext} and is shared by all its socket factories.
+     * Clients with a cache size also record whether their handshakes resumed a session. The JDK default is used, and
+     * handshakes are not recorded, if absent.
+     */
+    Optional<Integer> tlsSessionCacheSize();
+
+    /**
+     * If present, idle connections are evicted from the client's connection pool according to the given policy, as well
+     * as after the pool's fixed keep-alive. Disabled by default.
+     *
+     * <p>Requires {@link #connectionIsolation}, since the evictor must see every request on the connections it evicts.
+     * Like the pool itself, the evictor is set up by the first client created for the service class, and later clients
+     * for the same service class share it.
+     */
+    Optional<AdaptiveConnectionEviction> adaptiveConnectionEviction();
+
+    /**
+     * If present, bounds the total time spent on each request, including all retries and the backoffs between them.
+     * Each attempt's timeout is shrunk to the time remaining, and the remaining time is sent to the server in the
+     * {@code X-Request-Deadline-Millis} header so it can skip work the client will no longer wait for. Unbounded by
+     * default.
+     */
+    Optional<Duration> requestDeadline();
+
+    /**
+     * If present, at most this many bytes of a non-2xx response body are read to determine the error, so that a
+     * misbehaving server cannot make the client buffer arbitrarily large error responses. Longer bodies are truncated.
+     * Defaults to 512 KiB.
+     */
+    Optional<Integer> maxErrorBodyBytes();
+
+    /**
+     * If present and {@link #enableHttp2} is set, requests to each host are spread over several HTTP/2 connections
+     * according to the given policy, rather than multiplexed over a single one. Disabled by default.
+     */
+    Optional<Http2ConnectionScaling> http2ConnectionScaling();
+
+    /**
+     * If present, identical GET requests made while one is already in flight are coalesced with it according to the
+     * given policy, rather than sent. Disabled by default.
+     */
+    Optional<RequestCoalescing> requestCoalescing();
+
+    /** If present, responses are cached according to the given policy. Disabled by default. */
+    Optional<ResponseCaching> responseCaching();
+
     /** Indicates whether QosExceptions (other than RetryOther) should be propagated. */
     ServerQoS serverQoS();
 
@@ -138,6 +231,25 @@ public interface ClientConfiguration {
         checkTimeoutPrecision(readTimeout(), "readTimeout");
         checkTimeoutPrecision(writeTimeout(), "writeTimeout");
         checkArgument(!failedUrlCooldown().isNegative(), "failedUrlCooldown may not be negative");
+        checkArgument(
+                warmUpConnectionsPerUri().orElse(0) >= 0,
+                "warmUpConnectionsPerUri may not be negative",
+                SafeArg.of("warmUpConnectionsPerUri", warmUpConnectionsPerUri()));
+        checkArgument(
+                tlsSessionCacheSize().orElse(0) >= 0,
+                "tlsSessionCacheSize may not be negative",
+                SafeArg.of("tlsSessionCacheSize", tlsSessionCacheSize()));
+        checkArgument(
+                adaptiveConnectionEviction().isEmpty() || connectionIsolation().isPresent(),
+                "If adaptiveConnectionEviction is configured then connectionIsolation must be configured");
+        checkArgument(
+                requestDeadline().map(deadline -> !deadline.isNegative() && !deadline.isZero()).orElse(true),
+                "requestDeadline must be positive",
+                SafeArg.of("requestDeadline", requestDeadline()));
+        checkArgument(
+                maxErrorBodyBytes().orElse(0) >= 0,
+                "maxErrorBodyBytes may not be negative",
+                SafeArg.of("maxErrorBodyBytes", maxErrorBodyBytes()));
     }
 
     default void checkTimeoutPrecision(Duration duration, String timeoutName) {
@@ -0,0 +1,94 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import org.immutables.value.Value;
+
+/**
+ * Determines how client-side sympathetic QoS (see {@link ClientConfiguration#clientQoS}) estimates the number of
+ * requests which may be in flight concurrently against each endpoint.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface ConcurrencyLimitStrategy {
+
+    int DEFAULT_INITIAL_LIMIT = 10;
+
+    Algorithm algorithm();
+
+    /** The limit an adaptive algorithm starts from, or the constant limit of {@link Algorithm#FIXED}. */
+    int initialLimit();
+
+    @Value.Check
+    default void check() {
+        checkArgument(initialLimit() > 0, "initialLimit must be positive", SafeArg.of("initialLimit", initialLimit()));
+    }
+
+    static ConcurrencyLimitStrategy of(Algorithm algorithm, int initialLimit) {
+        return builder().algorithm(algorithm).initialLimit(initialLimit).build();
+    }
+
+    /** The default strategy. */
+    static ConcurrencyLimitStrategy aimd() {
+        return of(Algorithm.AIMD, DEFAULT_INITIAL_LIMIT);
+    }
+
+    static ConcurrencyLimitStrategy vegas() {
+        return of(Algorithm.VEGAS, DEFAULT_INITIAL_LIMIT);
+    }
+
+    static ConcurrencyLimitStrategy gradient2() {
+        return of(Algorithm.GRADIENT2, DEFAULT_INITIAL_LIMIT);
+    }
+
+    static ConcurrencyLimitStrategy fixed(int limit) {
+        return of(Algorithm.FIXED, limit);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableConcurrencyLimitStrategy.Builder {}
+
+    enum Algorithm {
+        /**
+         * Default. Additive increase whilst requests succeed, multiplicative decrease as soon as a 429 or 503 is
+         * received.
+         */
+        AIMD,
+
+        /**
+         * Delay based: estimates the size of the queue on the server from the increase in latency over the minimum
+         * observed latency, and adjusts the limit to keep that queue small. A single burst of 429/503 responses
+         * reduces the limit far less than {@link #AIMD}.
+         */
+        VEGAS,
+
+        /**
+         * Delay based: compares a short term latency average against a long term one, which tolerates gradual
+         * changes in latency better than {@link #VEGAS}.
+         */
+        GRADIENT2,
+
+        /** A constant limit which does not adapt to 429/503 responses or latency. */
+        FIXED
+    }
+}
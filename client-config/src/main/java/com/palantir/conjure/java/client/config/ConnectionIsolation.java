@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import org.immutables.value.Value;
+
+/**
+ * Configures a connection pool and dispatcher dedicated to one service, instead of those shared by all clients. A slow
+ * downstream then only exhausts its own dispatcher's per-host slots, rather than those of every client which targets
+ * the same host, for example through a mesh proxy. Clients for the same service class share the isolated pool and
+ * dispatcher, so connections are still reused between them.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface ConnectionIsolation {
+
+    /** The maximum number of idle connections kept in the pool. Defaults to 100. */
+    @Value.Default
+    default int maxIdleConnections() {
+        return 100;
+    }
+
+    /** How long idle connections are kept in the pool. Defaults to 55 seconds, like the shared pool. */
+    @Value.Default
+    default Duration keepAlive() {
+        return Duration.ofSeconds(55);
+    }
+
+    /** The maximum number of concurrent requests to a single host. Defaults to 256, like the shared dispatcher. */
+    @Value.Default
+    default int maxRequestsPerHost() {
+        return 256;
+    }
+
+    @Value.Check
+    default void check() {
+        checkArgument(
+                maxIdleConnections() >= 0,
+                "maxIdleConnections may not be negative",
+                SafeArg.of("maxIdleConnections", maxIdleConnections()));
+        checkArgument(
+                !keepAlive().isNegative() && !keepAlive().isZero(),
+                "keepAlive must be positive",
+                SafeArg.of("keepAlive", keepAlive()));
+        checkArgument(
+                maxRequestsPerHost() > 0,
+                "maxRequestsPerHost must be positive",
+                SafeArg.of("maxRequestsPerHost", maxRequestsPerHost()));
+    }
+
+    static ConnectionIsolation defaults() {
+        return builder().build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableConnectionIsolation.Builder {}
+}
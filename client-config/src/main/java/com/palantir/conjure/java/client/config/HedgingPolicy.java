@@ -0,0 +1,77 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import org.immutables.value.Value;
+
+/**
+ * Configures request hedging: if a GET request has not received response headers within a high percentile of recent
+ * response latency, a second request is sent to a different node, the first response wins and the other request is
+ * cancelled. Hedges are limited by a budget, so that they cannot more than marginally increase load on the servers.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface HedgingPolicy {
+
+    /** The percentile of recent response latency after which an outstanding request is hedged. Defaults to 0.95. */
+    @Value.Default
+    default double latencyPercentile() {
+        return 0.95;
+    }
+
+    /** Requests are never hedged sooner than this, whatever the recent latency. Defaults to 10 milliseconds. */
+    @Value.Default
+    default Duration minimumDelay() {
+        return Duration.ofMillis(10);
+    }
+
+    /** The maximum number of hedges, as a fraction of eligible requests. Defaults to 0.05. */
+    @Value.Default
+    default double budgetRatio() {
+        return 0.05;
+    }
+
+    @Value.Check
+    default void check() {
+        checkArgument(
+                latencyPercentile() > 0 && latencyPercentile() < 1,
+                "latencyPercentile must be between 0 and 1",
+                SafeArg.of("latencyPercentile", latencyPercentile()));
+        checkArgument(
+                !minimumDelay().isNegative(),
+                "minimumDelay may not be negative",
+                SafeArg.of("minimumDelay", minimumDelay()));
+        checkArgument(
+                budgetRatio() > 0 && budgetRatio() <= 1,
+                "budgetRatio must be greater than 0 and at most 1",
+                SafeArg.of("budgetRatio", budgetRatio()));
+    }
+
+    static HedgingPolicy defaults() {
+        return builder().build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableHedgingPolicy.Builder {}
+}
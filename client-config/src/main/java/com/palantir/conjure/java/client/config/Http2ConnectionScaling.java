@@ -0,0 +1,84 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import org.immutables.value.Value;
+
+/**
+ * Configures how many HTTP/2 connections a client opens to each host. OkHttp multiplexes all requests to a host over a
+ * single HTTP/2 connection until the server's stream limit is reached, which caps throughput at what one socket can
+ * carry and lets one slow response hold up the others behind it. With this policy, requests are spread over additional
+ * connections once the streams in use on the existing ones pass a threshold.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface Http2ConnectionScaling {
+
+    /**
+     * The number of concurrent streams servers allow on each connection, as advertised in their
+     * {@code SETTINGS_MAX_CONCURRENT_STREAMS}, which OkHttp does not expose. Defaults to 100, the minimum RFC 9113
+     * recommends.
+     */
+    @Value.Default
+    default int maxConcurrentStreams() {
+        return 100;
+    }
+
+    /**
+     * The fraction of {@link #maxConcurrentStreams} in use on each connection to a host past which requests are sent on
+     * a further connection. Defaults to 0.75.
+     */
+    @Value.Default
+    default double streamUtilizationThreshold() {
+        return 0.75;
+    }
+
+    /** The maximum number of HTTP/2 connections opened to each host. Defaults to 4. */
+    @Value.Default
+    default int maxConnectionsPerHost() {
+        return 4;
+    }
+
+    @Value.Check
+    default void check() {
+        checkArgument(
+                maxConcurrentStreams() > 0,
+                "maxConcurrentStreams must be positive",
+                SafeArg.of("maxConcurrentStreams", maxConcurrentStreams()));
+        checkArgument(
+                streamUtilizationThreshold() > 0 && streamUtilizationThreshold() <= 1,
+                "streamUtilizationThreshold must be in (0, 1]",
+                SafeArg.of("streamUtilizationThreshold", streamUtilizationThreshold()));
+        checkArgument(
+                maxConnectionsPerHost() > 0,
+                "maxConnectionsPerHost must be positive",
+                SafeArg.of("maxConnectionsPerHost", maxConnectionsPerHost()));
+    }
+
+    static Http2ConnectionScaling defaults() {
+        return builder().build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableHttp2ConnectionScaling.Builder {}
+}
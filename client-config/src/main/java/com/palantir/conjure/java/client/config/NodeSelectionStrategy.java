@@ -29,5 +29,11 @@ public enum NodeSelectionStrategy {
     ROUND_ROBIN,
 
     /** Similar to {@link #PIN_UNTIL_ERROR}, except will not shuffle the URLs throughout the lifetime of the client. */
-    PIN_UNTIL_ERROR_WITHOUT_RESHUFFLE
+    PIN_UNTIL_ERROR_WITHOUT_RESHUFFLE,
+
+    /**
+     * For each new request, pick two nodes at random and select the one with fewer requests in flight relative to its
+     * recent average latency. Steers load away from nodes which are slow but not failing.
+     */
+    BALANCED
 }
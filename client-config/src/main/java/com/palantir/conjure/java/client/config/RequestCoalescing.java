@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import java.util.Set;
+import org.immutables.value.Value;
+
+/**
+ * Configures coalescing of identical GET requests. While a GET request is in flight, further GET requests with the same
+ * URL and key headers are not sent, and instead receive a copy of the first request's response once it arrives. This
+ * trades the freshness of responses, which may have been generated slightly before the coalesced request was made, for
+ * fewer requests to the server when many callers request the same resource at once.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface RequestCoalescing {
+
+    /**
+     * The names of the request headers whose values must match for requests to be coalesced, in addition to the
+     * {@code Authorization} header, which is always part of the key so that callers never receive a response made on
+     * behalf of someone else. Other headers are ignored, and the first request's headers are sent. Empty by default.
+     */
+    Set<String> keyHeaders();
+
+    /**
+     * The largest response body which is buffered to be shared between coalesced requests. If the first request's
+     * response body is larger, it is streamed to that request's caller as usual, and the coalesced requests are each
+     * sent on their own. Defaults to 1 MiB.
+     */
+    @Value.Default
+    default int maxBufferedBodyBytes() {
+        return 1024 * 1024;
+    }
+
+    @Value.Check
+    default void check() {
+        checkArgument(
+                maxBufferedBodyBytes() >= 0,
+                "maxBufferedBodyBytes may not be negative",
+                SafeArg.of("maxBufferedBodyBytes", maxBufferedBodyBytes()));
+    }
+
+    static RequestCoalescing defaults() {
+        return builder().build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableRequestCoalescing.Builder {}
+}
@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import java.nio.file.Path;
+import org.immutables.value.Value;
+
+/**
+ * Configures an HTTP response cache, which honours the {@code Cache-Control} headers of responses and revalidates
+ * stale entries using their {@code ETag} and {@code Last-Modified} headers. Responses served from the cache, including
+ * those revalidated by a {@code 304 Not Modified} response, do not count towards the client's concurrency limit.
+ *
+ * <p>Cached responses are only served to requests with the same {@code Authorization} header as the request they were
+ * cached for, so that callers never receive a response made on behalf of someone else. Only a hash of the header is
+ * written to the cache directory, never the header itself.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface ResponseCaching {
+
+    /**
+     * The directory in which responses are cached. Each client caches in its own subdirectory, named after its service
+     * class.
+     */
+    Path directory();
+
+    /** The maximum size of each client's cache, beyond which the least recently used responses are evicted. */
+    @Value.Default
+    default long maxSizeBytes() {
+        return 10 * 1024 * 1024;
+    }
+
+    @Value.Check
+    default void check() {
+        checkArgument(
+                maxSizeBytes() > 0, "maxSizeBytes must be positive", SafeArg.of("maxSizeBytes", maxSizeBytes()));
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableResponseCaching.Builder {}
+}
@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.client.config;
+
+import static com.palantir.logsafe.Preconditions.checkArgument;
+
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import org.immutables.value.Value;
+
+/**
+ * Configures a client-wide retry budget: over a sliding window, retries may not exceed a fraction of requests, plus a
+ * small fixed allowance so that clients with little traffic can still retry. Once the budget is exhausted, calls which
+ * would otherwise be retried fail immediately, so that a partial outage is not amplified by every in-flight call
+ * retrying up to {@link ClientConfiguration#maxNumRetries} times.
+ */
+@Value.Immutable
+@ImmutablesStyle
+public interface RetryBudgetPolicy {
+
+    /** The maximum number of retries, as a fraction of requests in the window. Defaults to 0.1. */
+    @Value.Default
+    default double retryRatio() {
+        return 0.1;
+    }
+
+    /** Retries allowed per second regardless of the number of requests. Defaults to 10. */
+    @Value.Default
+    default int minRetriesPerSecond() {
+        return 10;
+    }
+
+    /** The sliding window over which requests and retries are counted. Defaults to 10 seconds. */
+    @Value.Default
+    default Duration window() {
+        return Duration.ofSeconds(10);
+    }
+
+    @Value.Check
+    default void check() {
+        checkArgument(
+                retryRatio() >= 0,
+                "retryRatio may not be negative",
+                SafeArg.of("retryRatio", retryRatio()));
+        checkArgument(
+                minRetriesPerSecond() >= 0,
+                "minRetriesPerSecond may not be negative",
+                SafeArg.of("minRetriesPerSecond", minRetriesPerSecond()));
+        checkArgument(
+                window().compareTo(Duration.ofSeconds(1)) >= 0,
+                "window must be at least one second",
+                SafeArg.of("window", window()));
+    }
+
+    static RetryBudgetPolicy defaults() {
+        return builder().build();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableRetryBudgetPolicy.Builder {}
+}
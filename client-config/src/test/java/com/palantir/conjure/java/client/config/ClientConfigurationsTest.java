@@ -111,6 +111,27 @@ public final class ClientConfigurationsTest {
                 .hasMessage("If meshProxy is configured then uris must contain exactly 1 URI");
     }
 
+    @Test
+    public void adaptiveConnectionEviction_requiresConnectionIsolation() {
+        ClientConfiguration config = ClientConfigurations.of(ServiceConfiguration.builder()
+                .uris(uris)
+                .security(SslConfiguration.of(Paths.get("src/test/resources/trustStore.jks")))
+                .build());
+        assertThatThrownBy(() -> ClientConfiguration.builder()
+                        .from(config)
+                        .adaptiveConnectionEviction(AdaptiveConnectionEviction.defaults())
+                        .build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("If adaptiveConnectionEviction is configured then connectionIsolation must be configured");
+
+        ClientConfiguration isolated = ClientConfiguration.builder()
+                .from(config)
+                .adaptiveConnectionEviction(AdaptiveConnectionEviction.defaults())
+                .connectionIsolation(ConnectionIsolation.defaults())
+                .build();
+        assertThat(isolated.adaptiveConnectionEviction()).isPresent();
+    }
+
     @Test
     public void overriding_tagged_metric_registry_is_convenient() {
         ServiceConfiguration serviceConfig = ServiceConfiguration.builder()
@@ -0,0 +1,135 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.server.jersey;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.undertest.UndertowServerExtension;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response.Status;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public final class RequestDeadlineTest {
+
+    private static final AtomicInteger invocations = new AtomicInteger();
+    private static final AtomicReference<Optional<Duration>> remaining = new AtomicReference<>();
+
+    @RegisterExtension
+    public static final UndertowServerExtension undertow = UndertowServerExtension.create()
+            .jersey(ConjureJerseyFeature.INSTANCE)
+            .jersey(new DeadlineResource());
+
+    @BeforeEach
+    public void before() {
+        invocations.set(0);
+        remaining.set(null);
+    }
+
+    @Test
+    public void testRemainingDeadline() {
+        HttpGet request = new HttpGet("/ping");
+        request.addHeader(RequestDeadlineFilter.DEADLINE_HEADER, "1000");
+        undertow.runRequest(request, response -> {
+            assertThat(response.getCode()).isEqualTo(Status.NO_CONTENT.getStatusCode());
+        });
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    public void testExpiredDeadline() {
+        HttpGet request = new HttpGet("/ping");
+        request.addHeader(RequestDeadlineFilter.DEADLINE_HEADER, "0");
+        undertow.runRequest(request, response -> {
+            assertThat(response.getCode()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        });
+        assertThat(invocations).hasValue(0);
+    }
+
+    @Test
+    public void testMalformedDeadline() {
+        HttpGet request = new HttpGet("/ping");
+        request.addHeader(RequestDeadlineFilter.DEADLINE_HEADER, "soon");
+        undertow.runRequest(request, response -> {
+            assertThat(response.getCode()).isEqualTo(Status.NO_CONTENT.getStatusCode());
+        });
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    public void testRemainingDeadlineIsAvailableToResources() {
+        HttpGet request = new HttpGet("/remaining");
+        request.addHeader(RequestDeadlineFilter.DEADLINE_HEADER, "60000");
+        undertow.runRequest(request, response -> {
+            assertThat(response.getCode()).isEqualTo(Status.NO_CONTENT.getStatusCode());
+        });
+        assertThat(remaining.get())
+                .hasValueSatisfying(duration -> assertThat(duration)
+                        .isPositive()
+                        .isLessThanOrEqualTo(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    public void testNoDeadline() {
+        undertow.runRequest(new HttpGet("/remaining"), response -> {
+            assertThat(response.getCode()).isEqualTo(Status.NO_CONTENT.getStatusCode());
+        });
+        assertThat(remaining.get()).isEmpty();
+    }
+
+    @Test
+    public void testDeadlinePassesWhileProcessing() {
+        HttpGet request = new HttpGet("/slow");
+        request.addHeader(RequestDeadlineFilter.DEADLINE_HEADER, "50");
+        undertow.runRequest(request, response -> {
+            assertThat(response.getCode()).isEqualTo(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        });
+        assertThat(invocations).hasValue(0);
+    }
+
+    @Path("/")
+    public static final class DeadlineResource {
+        @GET
+        @Path("/ping")
+        public void ping() {
+            invocations.incrementAndGet();
+        }
+
+        @GET
+        @Path("/remaining")
+        public void remaining(@Context ContainerRequestContext request) {
+            remaining.set(RequestDeadlines.remaining(request));
+        }
+
+        @GET
+        @Path("/slow")
+        public void slow(@Context ContainerRequestContext request) throws InterruptedException {
+            Thread.sleep(100);
+            RequestDeadlines.checkNotExpired(request);
+            invocations.incrementAndGet();
+        }
+    }
+}
@@ -83,6 +83,9 @@ public enum ConjureJerseyFeature implements Feature {
         // Deprecation
         context.register(DeprecationReportingResponseFeature.INSTANCE);
 
+        // Deadlines
+        context.register(RequestDeadlineFilter.INSTANCE);
+
         return true;
     }
 
@@ -0,0 +1,55 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.server.jersey;
+
+import com.palantir.conjure.java.api.errors.ErrorType;
+import com.palantir.conjure.java.api.errors.ServiceException;
+import com.palantir.logsafe.SafeArg;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * Honours the deadline propagated by conjure-java-runtime clients in the {@value #DEADLINE_HEADER} header, which holds
+ * the time in milliseconds the client will still wait for a response. Requests which arrive after their deadline has
+ * passed are rejected with a {@link ErrorType#TIMEOUT timeout error} rather than processed, since the client has
+ * already given up on them. For all other requests the deadline is recorded, so that resources can check it through
+ * {@link RequestDeadlines}.
+ */
+enum RequestDeadlineFilter implements ContainerRequestFilter {
+    INSTANCE;
+
+    static final String DEADLINE_HEADER = "X-Request-Deadline-Millis";
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String deadline = requestContext.getHeaderString(DEADLINE_HEADER);
+        if (deadline == null) {
+            return;
+        }
+        long remainingMillis;
+        try {
+            remainingMillis = Long.parseLong(deadline);
+        } catch (NumberFormatException e) {
+            // A malformed deadline is ignored rather than failing an otherwise valid request
+            return;
+        }
+        if (remainingMillis <= 0) {
+            throw new ServiceException(ErrorType.TIMEOUT, SafeArg.of("remainingMillis", remainingMillis));
+        }
+        RequestDeadlines.record(requestContext, remainingMillis);
+    }
+}
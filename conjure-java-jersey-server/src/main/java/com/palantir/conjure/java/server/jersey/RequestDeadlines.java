@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.server.jersey;
+
+import com.palantir.conjure.java.api.errors.ErrorType;
+import com.palantir.conjure.java.api.errors.ServiceException;
+import com.palantir.logsafe.SafeArg;
+import javax.ws.rs.container.ContainerRequestContext;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives resources access to the deadline propagated by conjure-java-runtime clients, so that they can stop work the
+ * client will no longer wait for. The deadline is measured from when the request reaches the
+ * {@link ConjureJerseyFeature}'s filters, and resources obtain the request through
+ * {@code @Context ContainerRequestContext}.
+ */
+public final class RequestDeadlines {
+    private static final String DEADLINE_PROPERTY = RequestDeadlines.class.getName() + ".deadlineNanos";
+
+    private RequestDeadlines() {}
+
+    /**
+     * Returns the time left until the request's deadline, which is zero or negative once the deadline has passed, or
+     * empty if the client did not propagate a deadline.
+     */
+    public static Optional<Duration> remaining(ContainerRequestContext request) {
+        Object deadlineNanos = request.getProperty(DEADLINE_PROPERTY);
+        if (!(deadlineNanos instanceof Long)) {
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos((Long) deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Throws a {@link ErrorType#TIMEOUT timeout error} if the request's deadline has passed, so that long-running
+     * resources can give up on requests the client has already abandoned.
+     */
+    public static void checkNotExpired(ContainerRequestContext request) {
+        Optional<Duration> remaining = remaining(request);
+        if (remaining.isPresent() && (remaining.get().isNegative() || remaining.get().isZero())) {
+            throw new ServiceException(
+                    ErrorType.TIMEOUT, SafeArg.of("remainingMillis", remaining.get().toMillis()));
+        }
+    }
+
+    /** Records a deadline the given number of milliseconds from now. */
+    static void record(ContainerRequestContext request, long remainingMillis) {
+        // Compared by subtraction, so that the sum may overflow
+        request.setProperty(DEADLINE_PROPERTY, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+}
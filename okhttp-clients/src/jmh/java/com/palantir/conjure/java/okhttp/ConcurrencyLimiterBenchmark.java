@@ -0,0 +1,186 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.concurrency.limits.Limit;
+import com.netflix.concurrency.limits.Limiter;
+import com.netflix.concurrency.limits.limiter.SimpleLimiter;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the acquire/release path of {@link ConcurrencyLimiters.DefaultConcurrencyLimiter} against the previous,
+ * fully synchronized, implementation. Use {@link #main} to run across 1 to 128 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ConcurrencyLimiterBenchmark {
+    private static final ConcurrencyLimiters.Key KEY =
+            ImmutableKey.builder().hostname("localhost").build();
+
+    @Param({"synchronized", "lock-free"})
+    public String implementation;
+
+    private ScheduledExecutorService limitReviver;
+    private ConcurrencyLimiters.ConcurrencyLimiter limiter;
+
+    @Setup
+    public void before() {
+        limitReviver = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).build());
+        ConcurrencyLimiters limiters = new ConcurrencyLimiters(
+                limitReviver, new DefaultTaggedMetricRegistry(), ConcurrencyLimiterBenchmark.class, true);
+        switch (implementation) {
+            case "synchronized":
+                limiter = new SynchronizedConcurrencyLimiter(limiters.newLimit());
+                break;
+            case "lock-free":
+                limiter = limiters.acquireLimiterInternal(KEY);
+                break;
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+    }
+
+    @TearDown
+    public void after() {
+        limitReviver.shutdownNow();
+    }
+
+    @Benchmark
+    public Limiter.Listener acquireAndRelease() {
+        Limiter.Listener listener = Futures.getUnchecked(limiter.acquire());
+        listener.onSuccess();
+        return listener;
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        for (int threads : new int[] {1, 2, 4, 8, 16, 32, 64, 128}) {
+            new Runner(new OptionsBuilder()
+                            .include(ConcurrencyLimiterBenchmark.class.getSimpleName())
+                            .threads(threads)
+                            .build())
+                    .run();
+        }
+    }
+
+    /** The previous implementation, which guarded all limiter state with its own monitor. */
+    private static final class SynchronizedConcurrencyLimiter implements ConcurrencyLimiters.ConcurrencyLimiter {
+        @GuardedBy("this")
+        private final ThreadWorkQueue<SettableFuture<Limiter.Listener>> waitingRequests = new ThreadWorkQueue<>();
+
+        @GuardedBy("this")
+        private final SimpleLimiter<Void> limiter;
+
+        private final LeakDetector<Limiter.Listener> leakDetector = new LeakDetector<>(Limiter.Listener.class);
+
+        SynchronizedConcurrencyLimiter(Limit limit) {
+            this.limiter = SimpleLimiter.newBuilder().limit(limit).build();
+        }
+
+        @Override
+        public synchronized String spanName() {
+            return String.format(
+                    "OkHttp: client-side-concurrency-limiter %d/%d", limiter.getInflight(), limiter.getLimit());
+        }
+
+        @Override
+        public synchronized int limit() {
+            return limiter.getLimit();
+        }
+
+        @Override
+        public synchronized int inflight() {
+            return limiter.getInflight();
+        }
+
+        @Override
+        public synchronized ListenableFuture<Limiter.Listener> acquire() {
+            SettableFuture<Limiter.Listener> future = SettableFuture.create();
+            waitingRequests.add(future);
+            processQueue();
+            return future;
+        }
+
+        synchronized void processQueue() {
+            while (!waitingRequests.isEmpty()) {
+                Optional<Limiter.Listener> maybeAcquired = limiter.acquire(null);
+                if (maybeAcquired.isEmpty()) {
+                    return;
+                }
+                Limiter.Listener wrapped = wrap(maybeAcquired.get());
+                if (!waitingRequests.remove().set(wrapped)) {
+                    wrapped.onIgnore();
+                }
+            }
+        }
+
+        private Limiter.Listener wrap(Limiter.Listener listener) {
+            Limiter.Listener result = new Limiter.Listener() {
+                @Override
+                public void onSuccess() {
+                    leakDetector.unregister(this);
+                    listener.onSuccess();
+                    processQueue();
+                }
+
+                @Override
+                public void onIgnore() {
+                    leakDetector.unregister(this);
+                    listener.onIgnore();
+                    processQueue();
+                }
+
+                @Override
+                public void onDropped() {
+                    leakDetector.unregister(this);
+                    listener.onDropped();
+                    processQueue();
+                }
+            };
+            leakDetector.register(result, Optional.empty());
+            return new ConcurrencyLimiters.AtMostOneInteractionListener(result);
+        }
+    }
+}
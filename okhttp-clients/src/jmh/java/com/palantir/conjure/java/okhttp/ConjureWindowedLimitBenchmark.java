@@ -0,0 +1,169 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.netflix.concurrency.limits.Limit;
+import com.netflix.concurrency.limits.limit.AIMDLimit;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares recording samples in {@link ConjureWindowedLimit} against the previous implementation, which replaced an
+ * immutable sample window on every sample. Use {@link #main} to run across 1 to 128 threads and report allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ConjureWindowedLimitBenchmark {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"immutable", "striped"})
+    public String implementation;
+
+    private Limit limit;
+
+    @Setup
+    public void before() {
+        Limit delegate = AIMDLimit.newBuilder().initialLimit(100).maxLimit(1000).build();
+        switch (implementation) {
+            case "immutable":
+                limit = new ImmutableWindowedLimit(delegate);
+                break;
+            case "striped":
+                limit = new ConjureWindowedLimit(delegate);
+                break;
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+    }
+
+    @Benchmark
+    public void onSample() {
+        // Windows roll once a second, as they do for real requests
+        limit.onSample(System.nanoTime() - RTT, RTT, 10, false);
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        for (int threads : new int[] {1, 2, 4, 8, 16, 32, 64, 128}) {
+            new Runner(new OptionsBuilder()
+                            .include(ConjureWindowedLimitBenchmark.class.getSimpleName())
+                            .threads(threads)
+                            .addProfiler(GCProfiler.class)
+                            .build())
+                    .run();
+        }
+    }
+
+    /** The previous implementation of {@link ConjureWindowedLimit}. */
+    private static final class ImmutableWindowedLimit implements Limit {
+        private static final long WINDOW_TIME = TimeUnit.SECONDS.toNanos(1);
+        private static final long MIN_RTT_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(100);
+        private static final int WINDOW_SIZE = 10;
+
+        private final Limit delegate;
+        private final Object lock = new Object();
+        private final AtomicReference<ImmutableSampleWindow> sample =
+                new AtomicReference<>(new ImmutableSampleWindow(Long.MAX_VALUE, 0, 0, 0, false));
+        private volatile long nextUpdateTime = 0;
+
+        ImmutableWindowedLimit(Limit delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void notifyOnChange(Consumer<Integer> consumer) {
+            delegate.notifyOnChange(consumer);
+        }
+
+        @Override
+        public void onSample(long startTime, long rtt, int inflight, boolean didDrop) {
+            long endTime = startTime + rtt;
+            if (rtt < MIN_RTT_THRESHOLD) {
+                return;
+            }
+            ImmutableSampleWindow currentSample = didDrop
+                    ? sample.updateAndGet(current -> current.addDroppedSample(inflight))
+                    : sample.updateAndGet(window -> window.addSample(rtt, inflight));
+            if (endTime > nextUpdateTime || currentSample.didDrop) {
+                synchronized (lock) {
+                    if (endTime > nextUpdateTime || sample.get().didDrop) {
+                        ImmutableSampleWindow current = sample.get();
+                        if (current.didDrop || current.sampleCount > WINDOW_SIZE) {
+                            sample.set(new ImmutableSampleWindow(Long.MAX_VALUE, 0, 0, 0, false));
+                            nextUpdateTime = endTime + Math.min(Math.max(current.minRtt * 2, WINDOW_TIME), WINDOW_TIME);
+                            long averageRtt = current.sampleCount == 0 ? 0 : current.sum / current.sampleCount;
+                            delegate.onSample(startTime, averageRtt + 1, current.maxInFlight, didDrop);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int getLimit() {
+            return delegate.getLimit();
+        }
+    }
+
+    private static final class ImmutableSampleWindow {
+        private final long minRtt;
+        private final long sum;
+        private final int maxInFlight;
+        private final int sampleCount;
+        private final boolean didDrop;
+
+        ImmutableSampleWindow(long minRtt, long sum, int maxInFlight, int sampleCount, boolean didDrop) {
+            this.minRtt = minRtt;
+            this.sum = sum;
+            this.maxInFlight = maxInFlight;
+            this.sampleCount = sampleCount;
+            this.didDrop = didDrop;
+        }
+
+        ImmutableSampleWindow addSample(long rtt, int currentMaxInFlight) {
+            return new ImmutableSampleWindow(
+                    Math.min(rtt, minRtt),
+                    sum + rtt,
+                    Math.max(currentMaxInFlight, maxInFlight),
+                    sampleCount + 1,
+                    didDrop);
+        }
+
+        ImmutableSampleWindow addDroppedSample(int currentMaxInFlight) {
+            return new ImmutableSampleWindow(minRtt, sum, Math.max(currentMaxInFlight, maxInFlight), sampleCount, true);
+        }
+    }
+}
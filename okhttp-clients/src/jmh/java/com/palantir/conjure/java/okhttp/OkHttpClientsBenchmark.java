@@ -0,0 +1,146 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import com.palantir.conjure.java.api.config.service.UserAgent;
+import com.palantir.conjure.java.api.config.ssl.SslConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfigurations;
+import com.palantir.conjure.java.config.ssl.SslSocketFactories;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.Okio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the full {@link OkHttpClients} request pipeline, including all interceptors installed by
+ * the runtime, against an in-process TLS {@link MockWebServer}. {@link Mode#SampleTime} reports latency percentiles
+ * (including p99) and the {@code gc} profiler, enabled in {@code build.gradle}, reports allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class OkHttpClientsBenchmark {
+    private static final UserAgent AGENT = UserAgent.of(UserAgent.Agent.of("okhttp-clients-jmh", "0.0.0"));
+
+    @Param({"0", "1024", "65536"})
+    public int payloadBytes;
+
+    @Param({"HTTP_1_1", "HTTP_2"})
+    public Protocol protocol;
+
+    @Param({"ENABLED", "DANGEROUS_DISABLE_SYMPATHETIC_CLIENT_QOS"})
+    public ClientConfiguration.ClientQoS clientQoS;
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private Request request;
+
+    @Setup
+    public void before() throws IOException {
+        SslConfiguration sslConfig =
+                SslConfiguration.of(copyResource("trustStore.jks"), copyResource("keyStore.jks"), "keystore");
+
+        byte[] payload = new byte[payloadBytes];
+        ThreadLocalRandom.current().nextBytes(payload);
+        // MockResponse hands out a copy of its body to each request, so a single instance can be shared
+        MockResponse response = new MockResponse().setResponseCode(200).setBody(new Buffer().write(payload));
+
+        server = new MockWebServer();
+        server.useHttps(SslSocketFactories.createSslSocketFactory(sslConfig), false);
+        server.setProtocols(
+                protocol == Protocol.HTTP_2
+                        ? ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : ImmutableList.of(Protocol.HTTP_1_1));
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest _recordedRequest) {
+                return response;
+            }
+        });
+        server.start();
+
+        String uri = server.url("/api").toString();
+        ClientConfiguration config = ClientConfiguration.builder()
+                .from(ClientConfigurations.of(
+                        ImmutableList.of(uri),
+                        SslSocketFactories.createSslSocketFactory(sslConfig),
+                        SslSocketFactories.createX509TrustManager(sslConfig)))
+                .enableHttp2(protocol == Protocol.HTTP_2)
+                .clientQoS(clientQoS)
+                .build();
+        client = OkHttpClients.create(config, AGENT, NoOpHostEventsSink.INSTANCE, OkHttpClientsBenchmark.class);
+        request = new Request.Builder()
+                .url(uri + "/benchmark")
+                .header(OkhttpTraceInterceptor.PATH_TEMPLATE_HEADER, "/benchmark")
+                .get()
+                .build();
+    }
+
+    @TearDown
+    public void after() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public long request() throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().source().readAll(Okio.blackhole());
+        }
+    }
+
+    /**
+     * Copies one of the test keystores, which the jmh source set has on its classpath, to disk, since the resources may
+     * be packaged inside the benchmark jar but the keystore APIs require a file.
+     */
+    static Path copyResource(String name) throws IOException {
+        Path file = Files.createTempFile("okhttp-clients-jmh", name);
+        file.toFile().deleteOnExit();
+        Files.write(file, Resources.toByteArray(Resources.getResource(name)));
+        return file;
+    }
+}
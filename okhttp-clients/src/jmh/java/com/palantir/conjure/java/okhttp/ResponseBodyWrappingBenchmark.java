@@ -0,0 +1,122 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.netflix.concurrency.limits.Limiter;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares streaming a response body in small reads through {@link ConcurrencyLimitingInterceptor#wrapSource} against
+ * the previous {@link Proxy} based wrapper, which reflectively dispatched every read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ResponseBodyWrappingBenchmark {
+    private static final Limiter.Listener NO_OP_LISTENER =
+            new ConcurrencyLimiters.NoOpConcurrencyLimiter.NoOpLimiterListener();
+
+    @Param({"proxy", "forwarding"})
+    public String implementation;
+
+    @Param({"65536"})
+    public int bodyBytes;
+
+    @Param({"16"})
+    public int readBytes;
+
+    private byte[] body;
+    private byte[] readBuffer;
+
+    @Setup
+    public void before() {
+        body = new byte[bodyBytes];
+        readBuffer = new byte[readBytes];
+    }
+
+    @Benchmark
+    public void readBody(Blackhole blackhole) throws IOException {
+        BufferedSource source = wrap(new Buffer().write(body));
+        int read;
+        while ((read = source.read(readBuffer)) != -1) {
+            blackhole.consume(read);
+        }
+        source.close();
+    }
+
+    private BufferedSource wrap(BufferedSource source) {
+        switch (implementation) {
+            case "proxy":
+                return (BufferedSource) Proxy.newProxyInstance(
+                        BufferedSource.class.getClassLoader(),
+                        new Class<?>[] {BufferedSource.class},
+                        new ReleaseConcurrencyLimitProxy(source, NO_OP_LISTENER));
+            case "forwarding":
+                return ConcurrencyLimitingInterceptor.wrapSource(source, NO_OP_LISTENER);
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+    }
+
+    /** The previous implementation. */
+    private static final class ReleaseConcurrencyLimitProxy implements InvocationHandler {
+        private final BufferedSource delegate;
+        private final Limiter.Listener listener;
+        private boolean closed = false;
+
+        private ReleaseConcurrencyLimitProxy(BufferedSource delegate, Limiter.Listener listener) {
+            this.delegate = delegate;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object _proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close") && !closed) {
+                closed = true;
+                listener.onSuccess();
+            }
+
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link ThreadWorkQueue} against the previous implementation, a {@link LinkedHashMap} of per-thread
+ * {@link ArrayDeque}s, at queue depths seen when a limiter is throttling. Each operation hands out the next element and
+ * queues a new one, keeping the queue at a constant depth. Use {@link #main} to also report allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ThreadWorkQueueBenchmark {
+
+    @Param({"LinkedHashMap", "compact"})
+    public String implementation;
+
+    /** Number of queued elements. */
+    @Param({"16", "1024", "8192"})
+    public int depth;
+
+    /** Number of distinct threads which submitted the queued elements. */
+    @Param({"1", "64", "1024"})
+    public int submitters;
+
+    private FairQueue queue;
+    private long nextSubmitter;
+
+    @Setup
+    public void before() {
+        switch (implementation) {
+            case "LinkedHashMap":
+                queue = new LinkedHashMapQueue();
+                break;
+            case "compact":
+                ThreadWorkQueue<Object> compact = new ThreadWorkQueue<>();
+                queue = new FairQueue() {
+                    @Override
+                    public void add(long threadId, Object element) {
+                        compact.add(threadId, element);
+                    }
+
+                    @Override
+                    public Object remove() {
+                        return compact.remove();
+                    }
+                };
+                break;
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+        for (int i = 0; i < depth; i++) {
+            queue.add(nextSubmitter(), new Object());
+        }
+    }
+
+    @Benchmark
+    public Object removeAndAdd() {
+        Object element = queue.remove();
+        queue.add(nextSubmitter(), element);
+        return element;
+    }
+
+    private long nextSubmitter() {
+        // Thread ids are assigned sequentially, so sequential ids are representative
+        return nextSubmitter++ % submitters;
+    }
+
+    public static void main(String[] _args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(ThreadWorkQueueBenchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build())
+                .run();
+    }
+
+    private interface FairQueue {
+        void add(long threadId, Object element);
+
+        Object remove();
+    }
+
+    /** The previous implementation of {@link ThreadWorkQueue}. */
+    private static final class LinkedHashMapQueue implements FairQueue {
+        private final Map<Long, Queue<Object>> queuedRequests = new LinkedHashMap<>();
+
+        @Override
+        public void add(long threadId, Object element) {
+            queuedRequests.computeIfAbsent(threadId, _key -> new ArrayDeque<>(2)).add(element);
+        }
+
+        @Override
+        public Object remove() {
+            Iterator<Map.Entry<Long, Queue<Object>>> iterator = queuedRequests.entrySet().iterator();
+            Map.Entry<Long, Queue<Object>> workQueue = iterator.next();
+            iterator.remove();
+            Object result = workQueue.getValue().remove();
+            if (!workQueue.getValue().isEmpty()) {
+                queuedRequests.put(workQueue.getKey(), workQueue.getValue());
+            }
+            return result;
+        }
+    }
+}
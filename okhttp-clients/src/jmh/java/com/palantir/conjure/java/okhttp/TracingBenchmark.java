@@ -0,0 +1,127 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.java.api.config.service.UserAgent;
+import com.palantir.conjure.java.api.config.ssl.SslConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfigurations;
+import com.palantir.conjure.java.config.ssl.SslSocketFactories;
+import com.palantir.tracing.Observability;
+import com.palantir.tracing.Tracer;
+import com.palantir.tracing.Tracers;
+import com.palantir.tracing.api.SpanType;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares requests made from within a sampled trace against requests made from within an unsampled one, which skip
+ * creating all spans other than those needed to propagate the trace. Compare {@code gc.alloc.rate.norm} between the
+ * two to see the per-request allocation saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class TracingBenchmark {
+    private static final UserAgent AGENT = UserAgent.of(UserAgent.Agent.of("okhttp-clients-jmh", "0.0.0"));
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private Request request;
+
+    @Setup
+    public void before() throws IOException {
+        SslConfiguration sslConfig = SslConfiguration.of(OkHttpClientsBenchmark.copyResource("trustStore.jks"));
+        MockResponse response = new MockResponse().setResponseCode(204);
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest _recordedRequest) {
+                return response;
+            }
+        });
+        server.start();
+
+        String uri = server.url("/api").toString();
+        ClientConfiguration config = ClientConfigurations.of(
+                ImmutableList.of(uri),
+                SslSocketFactories.createSslSocketFactory(sslConfig),
+                SslSocketFactories.createX509TrustManager(sslConfig));
+        client = OkHttpClients.create(config, AGENT, NoOpHostEventsSink.INSTANCE, TracingBenchmark.class);
+        request = new Request.Builder()
+                .url(uri + "/benchmark")
+                .header(OkhttpTraceInterceptor.PATH_TEMPLATE_HEADER, "/benchmark")
+                .get()
+                .build();
+    }
+
+    @TearDown
+    public void after() throws IOException {
+        server.shutdown();
+    }
+
+    /** Each benchmark thread makes its requests from within a single long-lived trace. */
+    @State(Scope.Thread)
+    public static class ThreadTrace {
+        @Param({"SAMPLE", "DO_NOT_SAMPLE"})
+        public Observability observability;
+
+        @Setup
+        public void before() {
+            Tracer.initTraceWithSpan(observability, Tracers.randomId(), "benchmark", SpanType.LOCAL);
+        }
+
+        @TearDown
+        public void after() {
+            Tracer.fastCompleteSpan();
+            Tracer.getAndClearTrace();
+        }
+    }
+
+    @Benchmark
+    public int request(ThreadTrace _trace) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return response.code();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the per-request cost of matching request URLs to base URLs in {@link UrlSelectorImpl}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(4)
+@Fork(1)
+public class UrlSelectorBenchmark {
+
+    @Param({"3", "50"})
+    public int numUrls;
+
+    private UrlSelectorImpl selector;
+    private HttpUrl requestUrl;
+
+    @Setup
+    public void before() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < numUrls; i++) {
+            urls.add("https://host-" + i + ".example.com:8443/api");
+        }
+        selector = UrlSelectorImpl.createWithFailedUrlCooldown(urls, true, Duration.ofSeconds(1), Clock.systemUTC());
+        requestUrl = HttpUrl.parse("https://host-" + (numUrls - 1) + ".example.com:8443/api/users/123?fields=name");
+    }
+
+    @Benchmark
+    public Optional<HttpUrl> redirectToCurrent() {
+        return selector.redirectToCurrent(requestUrl);
+    }
+
+    @Benchmark
+    public HttpUrl markAsSucceeded() {
+        selector.markAsSucceeded(requestUrl);
+        return requestUrl;
+    }
+}
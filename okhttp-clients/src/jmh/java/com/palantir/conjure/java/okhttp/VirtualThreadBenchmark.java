@@ -0,0 +1,164 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.conjure.java.api.config.service.UserAgent;
+import com.palantir.conjure.java.api.config.ssl.SslConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfigurations;
+import com.palantir.conjure.java.config.ssl.SslSocketFactories;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Makes {@link #CALLERS} concurrent blocking {@code execute()} calls against a server with a fixed response delay, and
+ * waits for all of them to complete. {@code PLATFORM} uses a platform thread per caller and the default client;
+ * {@code VIRTUAL} uses a virtual thread per caller and a client with
+ * {@link ClientConfiguration#enableVirtualThreads virtual threads} enabled. Throughput is {@link #CALLERS} divided by
+ * the reported time, and the peak number of platform threads is reported as the {@code peakPlatformThreads} secondary
+ * result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+    private static final UserAgent AGENT = UserAgent.of(UserAgent.Agent.of("okhttp-clients-jmh", "0.0.0"));
+    private static final int CALLERS = 10_000;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public CallerThreads threads;
+
+    private MockWebServer server;
+    private OkHttpClient client;
+    private Request request;
+    private ThreadFactory callerThreads;
+
+    public enum CallerThreads {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Setup
+    public void before() throws IOException {
+        SslConfiguration sslConfig = SslConfiguration.of(OkHttpClientsBenchmark.copyResource("trustStore.jks"));
+        MockResponse response = new MockResponse().setResponseCode(204).setHeadersDelay(10, TimeUnit.MILLISECONDS);
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest _recordedRequest) {
+                return response;
+            }
+        });
+        server.start();
+
+        String uri = server.url("/api").toString();
+        ClientConfiguration config = ClientConfiguration.builder()
+                .from(ClientConfigurations.of(
+                        ImmutableList.of(uri),
+                        SslSocketFactories.createSslSocketFactory(sslConfig),
+                        SslSocketFactories.createX509TrustManager(sslConfig)))
+                .enableVirtualThreads(threads == CallerThreads.VIRTUAL)
+                .build();
+        client = OkHttpClients.create(config, AGENT, NoOpHostEventsSink.INSTANCE, VirtualThreadBenchmark.class);
+        request = new Request.Builder().url(uri + "/benchmark").get().build();
+        callerThreads = threads == CallerThreads.VIRTUAL
+                ? VirtualThreads.factory("caller")
+                        .orElseThrow(() -> new SafeIllegalStateException("Virtual threads require JDK 21 or later"))
+                : new ThreadFactoryBuilder().setNameFormat("caller-%d").build();
+    }
+
+    @TearDown
+    public void after() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void blockingCallers(PlatformThreads platformThreads) throws InterruptedException {
+        List<Thread> callers = new ArrayList<>(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            Thread caller = callerThreads.newThread(() -> {
+                try (Response response = client.newCall(request).execute()) {
+                    response.code();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        platformThreads.record();
+    }
+
+    /** Reports the peak number of live platform threads during each iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PlatformThreads {
+        private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        private long peak;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            threadBean.resetPeakThreadCount();
+            peak = 0;
+        }
+
+        void record() {
+            peak = threadBean.getPeakThreadCount();
+        }
+
+        public long peakPlatformThreads() {
+            return peak;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.palantir.conjure.java.client.config.AdaptiveConnectionEviction;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricSet;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+
+/**
+ * Evicts idle connections from a {@link ConnectionPool} according to an {@link AdaptiveConnectionEviction} policy.
+ * Installed as the {@link EventListener} of every client using the pool with that policy, it tracks which connections
+ * are idle and the gap between requests to each host, and periodically closes the sockets of idle connections which
+ * should no longer be kept. OkHttp discards connections with closed sockets rather than reusing them.
+ *
+ * <p>A request may acquire a connection just as its socket is being closed. OkHttp then retries the request on a new
+ * connection, as it does when a server closes an idle connection.
+ */
+final class AdaptiveConnectionEvictor extends EventListener implements TaggedMetricSet {
+    private static final SafeLogger log = SafeLoggerFactory.get(AdaptiveConnectionEvictor.class);
+
+    @VisibleForTesting
+    static final Duration SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    /** Connections are kept for this multiple of the host's typical gap between requests. */
+    private static final long GAP_MULTIPLIER = 4;
+
+    private static final double ALPHA = 0.2;
+
+    private final ConnectionPool pool;
+    private final long minKeepAliveNanos;
+    private final long maxKeepAliveNanos;
+    private final int maxIdlePerHost;
+    private final double fileDescriptorPressureRatio;
+    private final Ticker ticker;
+    private final DoubleSupplier fileDescriptorUsage;
+    private final ConcurrentMap<HttpUrl, HostConnections> hosts = new ConcurrentHashMap<>();
+
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+    private final OkhttpMetrics metrics = OkhttpMetrics.of(registry);
+    private final Meter keepAliveEvictions = metrics.connectionPoolEvictions("keep-alive");
+    private final Meter perHostLimitEvictions = metrics.connectionPoolEvictions("per-host-limit");
+    private final Meter fileDescriptorEvictions = metrics.connectionPoolEvictions("fd-pressure");
+    private final Meter acquired = new Meter();
+    private final Meter connected = new Meter();
+
+    @VisibleForTesting
+    AdaptiveConnectionEvictor(
+            ConnectionPool pool,
+            AdaptiveConnectionEviction policy,
+            Duration poolKeepAlive,
+            Ticker ticker,
+            DoubleSupplier fileDescriptorUsage) {
+        this.pool = pool;
+        this.minKeepAliveNanos = policy.minKeepAlive().toNanos();
+        this.maxKeepAliveNanos = Math.max(minKeepAliveNanos, poolKeepAlive.toNanos());
+        this.maxIdlePerHost = policy.maxIdleConnectionsPerHost();
+        this.fileDescriptorPressureRatio = policy.fileDescriptorPressureRatio();
+        this.ticker = ticker;
+        this.fileDescriptorUsage = fileDescriptorUsage;
+        metrics.connectionPoolReuseRatio(this::reuseRatio);
+    }
+
+    /** Creates an evictor for the given pool which sweeps it every {@link #SWEEP_INTERVAL}. */
+    @SuppressWarnings("FutureReturnValueIgnored")
+    static AdaptiveConnectionEvictor create(
+            ConnectionPool pool,
+            AdaptiveConnectionEviction policy,
+            Duration poolKeepAlive,
+            ScheduledExecutorService scheduler) {
+        AdaptiveConnectionEvictor evictor = new AdaptiveConnectionEvictor(
+                pool, policy, poolKeepAlive, Ticker.systemTicker(), AdaptiveConnectionEvictor::fileDescriptorUsage);
+        scheduler.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        evictor.sweep();
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to evict idle connections", e);
+                    }
+                },
+                SWEEP_INTERVAL.toMillis(),
+                SWEEP_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+        return evictor;
+    }
+
+    @Override
+    public void connectEnd(Call _call, InetSocketAddress _address, Proxy _proxy, Protocol _protocol) {
+        connected.mark();
+    }
+
+    @Override
+    public void connectionAcquired(Call _call, Connection connection) {
+        acquired.mark();
+        hostFor(connection).acquired(connection, ticker.read());
+    }
+
+    @Override
+    public void connectionReleased(Call _call, Connection connection) {
+        hostFor(connection).released(connection, ticker.read());
+    }
+
+    /** Closes the idle connections which should no longer be kept. */
+    @VisibleForTesting
+    void sweep() {
+        double usage = fileDescriptorUsage.getAsDouble();
+        if (usage >= fileDescriptorPressureRatio) {
+            int idle = pool.idleConnectionCount();
+            log.info(
+                    "Evicting all idle connections because of file descriptor pressure",
+                    SafeArg.of("fileDescriptorUsage", usage),
+                    SafeArg.of("idleConnections", idle));
+            pool.evictAll();
+            fileDescriptorEvictions.mark(idle);
+        }
+        long now = ticker.read();
+        for (HostConnections host : hosts.values()) {
+            host.sweep(now);
+        }
+    }
+
+    @Override
+    public Map<MetricName, Metric> getMetrics() {
+        return registry.getMetrics();
+    }
+
+    private double reuseRatio() {
+        double acquiredRate = acquired.getOneMinuteRate();
+        if (acquiredRate == 0) {
+            return 1;
+        }
+        return Math.max(0, 1 - connected.getOneMinuteRate() / acquiredRate);
+    }
+
+    private HostConnections hostFor(Connection connection) {
+        HttpUrl url = connection.route().address().url();
+        HostConnections host = hosts.get(url);
+        if (host != null) {
+            return host;
+        }
+        return hosts.computeIfAbsent(url, _url -> {
+            HostConnections created = new HostConnections();
+            metrics.connectionPoolConnectionsIdlePerHost()
+                    .hostname(url.host())
+                    .port(Integer.toString(url.port()))
+                    .build(created::idleCount);
+            return created;
+        });
+    }
+
+    private static double fileDescriptorUsage() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+            com.sun.management.UnixOperatingSystemMXBean unix = (com.sun.management.UnixOperatingSystemMXBean) os;
+            long max = unix.getMaxFileDescriptorCount();
+            return max > 0 ? (double) unix.getOpenFileDescriptorCount() / max : 0;
+        }
+        return 0;
+    }
+
+    /** The state of a connection: the number of calls using it, and since when it has been idle if there are none. */
+    private static final class ConnectionState {
+        private final int calls;
+        private final long idleSinceNanos;
+
+        private ConnectionState(int calls, long idleSinceNanos) {
+            this.calls = calls;
+            this.idleSinceNanos = idleSinceNanos;
+        }
+    }
+
+    private final class HostConnections {
+        private final ConcurrentMap<Connection, ConnectionState> connections = new ConcurrentHashMap<>();
+        private final AtomicLong lastAcquiredNanos = new AtomicLong(Long.MIN_VALUE);
+        /** Exponentially weighted moving average of the gap between acquisitions, or -1 until there is one. */
+        private final AtomicLong gapNanos = new AtomicLong(-1);
+
+        void acquired(Connection connection, long now) {
+            connections.compute(
+                    connection,
+                    (_connection, state) -> new ConnectionState(state == null ? 1 : state.calls + 1, Long.MAX_VALUE));
+            long previous = lastAcquiredNanos.getAndSet(now);
+            if (previous != Long.MIN_VALUE) {
+                long gap = now - previous;
+                // Racing updates may drop a sample, which is harmless for an average
+                long average = gapNanos.get();
+                gapNanos.set(average < 0 ? gap : (long) (ALPHA * gap + (1 - ALPHA) * average));
+            }
+        }
+
+        void released(Connection connection, long now) {
+            connections.computeIfPresent(connection, (_connection, state) -> state.calls <= 1
+                    ? new ConnectionState(0, now)
+                    : new ConnectionState(state.calls - 1, Long.MAX_VALUE));
+        }
+
+        int idleCount() {
+            int idle = 0;
+            for (ConnectionState state : connections.values()) {
+                if (state.calls == 0) {
+                    idle++;
+                }
+            }
+            return idle;
+        }
+
+        void sweep(long now) {
+            long gap = gapNanos.get();
+            long keepAliveNanos = gap < 0
+                    ? maxKeepAliveNanos
+                    : Math.max(minKeepAliveNanos, Math.min(maxKeepAliveNanos, GAP_MULTIPLIER * gap));
+            List<Map.Entry<Connection, ConnectionState>> idle = new ArrayList<>();
+            for (Map.Entry<Connection, ConnectionState> entry : connections.entrySet()) {
+                if (entry.getKey().socket().isClosed()) {
+                    // Closed by the pool, the server, or a previous sweep
+                    connections.remove(entry.getKey(), entry.getValue());
+                } else if (entry.getValue().calls == 0) {
+                    if (now - entry.getValue().idleSinceNanos >= keepAliveNanos) {
+                        evict(entry, keepAliveEvictions);
+                    } else {
+                        idle.add(entry);
+                    }
+                }
+            }
+            if (idle.size() > maxIdlePerHost) {
+                // Keep the most recently used connections, which are the most likely to still be open on the server
+                idle.sort(Comparator.comparingLong(entry -> entry.getValue().idleSinceNanos));
+                for (Map.Entry<Connection, ConnectionState> entry : idle.subList(0, idle.size() - maxIdlePerHost)) {
+                    evict(entry, perHostLimitEvictions);
+                }
+            }
+        }
+
+        private void evict(Map.Entry<Connection, ConnectionState> entry, Meter reason) {
+            // Only evict if the connection has not been acquired since the sweep read its state
+            if (connections.remove(entry.getKey(), entry.getValue())) {
+                try {
+                    entry.getKey().socket().close();
+                    reason.mark();
+                } catch (IOException e) {
+                    log.debug("Failed to close idle connection", e);
+                }
+            }
+        }
+    }
+}
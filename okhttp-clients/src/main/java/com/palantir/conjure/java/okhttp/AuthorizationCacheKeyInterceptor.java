@@ -0,0 +1,97 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.google.common.hash.Hashing;
+import com.google.common.net.HttpHeaders;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Keys the response cache on a hash of each request's {@code Authorization} header, so that one caller's cached
+ * responses are never served to another caller of the same client, without writing credentials to disk.
+ *
+ * <p>OkHttp's cache is keyed on the URL alone, and only serves a cached response to a request whose headers named by the
+ * response's {@code Vary} header match those stored with the cached entry. Naming {@code Authorization} there would
+ * store the token itself in the cache's metadata files. Instead, the {@link #APPLICATION} interceptor, which runs
+ * before the cache, replaces the {@code Authorization} header with the {@value #CACHE_KEY_HEADER} header holding its
+ * SHA-256 hash. The {@link #NETWORK} interceptor, which runs after the cache, restores the original header on the
+ * request sent to the server, and makes the cached response vary on the hash.
+ */
+enum AuthorizationCacheKeyInterceptor implements Interceptor {
+    APPLICATION {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String authorization = request.header(HttpHeaders.AUTHORIZATION);
+            if (authorization == null) {
+                return chain.proceed(request);
+            }
+            Request cacheRequest = request.newBuilder()
+                    .removeHeader(HttpHeaders.AUTHORIZATION)
+                    .header(
+                            CACHE_KEY_HEADER,
+                            Hashing.sha256()
+                                    .hashString(authorization, StandardCharsets.UTF_8)
+                                    .toString())
+                    .tag(Authorization.class, new Authorization(authorization))
+                    .build();
+            return chain.proceed(cacheRequest).newBuilder().request(request).build();
+        }
+    },
+
+    NETWORK {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request cacheRequest = chain.request();
+            Authorization authorization = cacheRequest.tag(Authorization.class);
+            if (authorization == null) {
+                return chain.proceed(cacheRequest);
+            }
+            Request networkRequest = cacheRequest
+                    .newBuilder()
+                    .removeHeader(CACHE_KEY_HEADER)
+                    .header(HttpHeaders.AUTHORIZATION, authorization.value)
+                    .build();
+            // The cache stores the headers named by Vary from the response's request, so it must not carry the token
+            return chain.proceed(networkRequest)
+                    .newBuilder()
+                    .request(cacheRequest)
+                    .addHeader(HttpHeaders.VARY, CACHE_KEY_HEADER)
+                    .build();
+        }
+    };
+
+    static final String CACHE_KEY_HEADER = "X-Conjure-Authorization-Hash";
+
+    /** Carries the original header from the application interceptor to the network interceptor, in memory only. */
+    private static final class Authorization {
+        private final String value;
+
+        private Authorization(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "Authorization{<redacted>}";
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.codahale.metrics.Meter;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/** Records whether GET responses were served from the client's response cache. */
+final class CacheInstrumentingInterceptor implements Interceptor {
+    private final Meter hits;
+    private final Meter revalidations;
+    private final Meter misses;
+
+    private CacheInstrumentingInterceptor(Meter hits, Meter revalidations, Meter misses) {
+        this.hits = hits;
+        this.revalidations = revalidations;
+        this.misses = misses;
+    }
+
+    static Interceptor create(ClientMetrics clientMetrics, Class<?> serviceClass) {
+        String serviceName = serviceClass.getSimpleName();
+        return new CacheInstrumentingInterceptor(
+                clientMetrics.cacheHit(serviceName),
+                clientMetrics.cacheRevalidated(serviceName),
+                clientMetrics.cacheMiss(serviceName));
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (!"GET".equals(chain.request().method())) {
+            return response;
+        }
+        if (!servedFromCache(response)) {
+            misses.mark();
+        } else if (response.networkResponse() == null) {
+            hits.mark();
+        } else {
+            revalidations.mark();
+        }
+        return response;
+    }
+
+    /**
+     * Returns true if the response's body was read from the cache, either without contacting the server or after the
+     * server confirmed that the cached response is still valid.
+     */
+    static boolean servedFromCache(Response response) {
+        // The stale cached response is also present if the server replaced it with a new one
+        Response networkResponse = response.networkResponse();
+        return response.cacheResponse() != null
+                && (networkResponse == null || networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED);
+    }
+}
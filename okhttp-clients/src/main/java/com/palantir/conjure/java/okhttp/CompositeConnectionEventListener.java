@@ -0,0 +1,100 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+
+/**
+ * Forwards connection events to several listeners, since a client has a single {@link EventListener}. Only the
+ * connection events observed by this package's listeners are forwarded.
+ */
+final class CompositeConnectionEventListener extends EventListener {
+    private final List<EventListener> delegates;
+
+    private CompositeConnectionEventListener(List<EventListener> delegates) {
+        this.delegates = delegates;
+    }
+
+    /** Returns a listener which forwards to each of the given listeners, or the only one if there is just one. */
+    static EventListener of(List<EventListener> delegates) {
+        return delegates.size() == 1 ? delegates.get(0) : new CompositeConnectionEventListener(List.copyOf(delegates));
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        for (EventListener delegate : delegates) {
+            delegate.connectStart(call, inetSocketAddress, proxy);
+        }
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        for (EventListener delegate : delegates) {
+            delegate.secureConnectStart(call);
+        }
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        for (EventListener delegate : delegates) {
+            delegate.connectEnd(call, inetSocketAddress, proxy, protocol);
+        }
+    }
+
+    @Override
+    public void connectFailed(
+            Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        for (EventListener delegate : delegates) {
+            delegate.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+        }
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        for (EventListener delegate : delegates) {
+            delegate.connectionAcquired(call, connection);
+        }
+    }
+
+    @Override
+    public void connectionReleased(Call call, Connection connection) {
+        for (EventListener delegate : delegates) {
+            delegate.connectionReleased(call, connection);
+        }
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        for (EventListener delegate : delegates) {
+            delegate.callEnd(call);
+        }
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        for (EventListener delegate : delegates) {
+            delegate.callFailed(call, ioe);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.palantir.conjure.java.okhttp;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -27,28 +28,57 @@ import com.google.common.util.concurrent.SettableFuture;
 import com.netflix.concurrency.limits.Limit;
 import com.netflix.concurrency.limits.Limiter;
 import com.netflix.concurrency.limits.limit.AIMDLimit;
+import com.netflix.concurrency.limits.limit.FixedLimit;
+import com.netflix.concurrency.limits.limit.Gradient2Limit;
+import com.netflix.concurrency.limits.limit.VegasLimit;
 import com.netflix.concurrency.limits.limiter.SimpleLimiter;
+import com.palantir.conjure.java.client.config.ConcurrencyLimitStrategy;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.UnsafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
-import javax.annotation.concurrent.GuardedBy;
 import okhttp3.Request;
 import org.immutables.value.Value;
 
 final class ConcurrencyLimiters {
     private static final SafeLogger log = SafeLoggerFactory.get(ConcurrencyLimiters.class);
     private static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(1);
+    private static final String UNKNOWN_ENDPOINT = "unknown";
+    private static final String SPAN_NAME = "OkHttp: client-side-concurrency-limiter";
 
+    /**
+     * Upper bound on the number of limiters per client which report gauges. Limiters are keyed by hostname and
+     * endpoint, both of which are bounded in practice, but a misbehaving caller must not be able to grow the metric
+     * registry without bound.
+     */
+    @VisibleForTesting
+    static final int MAX_GAUGED_LIMITERS = 500;
+
+    /**
+     * Upper bound on the number of permits granted by a single drain pass. Listeners of granted permits run on the
+     * draining thread, which may be a request thread, so a long queue, for example after the limiter is reset, is
+     * granted in several passes with the remainder handed to the scheduler.
+     */
+    @VisibleForTesting
+    static final int MAX_PERMITS_PER_DRAIN = 64;
+
+    private final ConjureJavaClientQosMetrics metrics;
     private final Timer slowAcquire;
     private final Timer slowAcquireTagged;
     private final Meter leakSuspected;
@@ -57,6 +87,9 @@ final class ConcurrencyLimiters {
     private final Class<?> serviceClass;
     private final ScheduledExecutorService scheduledExecutorService;
     private final boolean useLimiter;
+    private final ConcurrencyLimitStrategy defaultStrategy;
+    private final Map<String, ConcurrencyLimitStrategy> endpointStrategies;
+    private final AtomicInteger gaugedLimiters = new AtomicInteger();
 
     @VisibleForTesting
     ConcurrencyLimiters(
@@ -64,8 +97,10 @@ final class ConcurrencyLimiters {
             TaggedMetricRegistry taggedMetricRegistry,
             Duration timeout,
             Class<?> serviceClass,
-            boolean useLimiter) {
-        ConjureJavaClientQosMetrics metrics = ConjureJavaClientQosMetrics.of(taggedMetricRegistry);
+            boolean useLimiter,
+            ConcurrencyLimitStrategy defaultStrategy,
+            Map<String, ConcurrencyLimitStrategy> endpointStrategies) {
+        this.metrics = ConjureJavaClientQosMetrics.of(taggedMetricRegistry);
         this.slowAcquire = metrics.requestPermitSlowAcquire();
         this.leakSuspected = metrics.requestPermitLeakSuspected();
         this.slowAcquireTagged = metrics.requestPermitSlowAcquireTagged(serviceClass.getSimpleName());
@@ -73,6 +108,42 @@ final class ConcurrencyLimiters {
         this.serviceClass = serviceClass;
         this.scheduledExecutorService = scheduledExecutorService;
         this.useLimiter = useLimiter;
+        this.defaultStrategy = defaultStrategy;
+        this.endpointStrategies = endpointStrategies;
+    }
+
+    @VisibleForTesting
+    ConcurrencyLimiters(
+            ScheduledExecutorService scheduledExecutorService,
+            TaggedMetricRegistry taggedMetricRegistry,
+            Duration timeout,
+            Class<?> serviceClass,
+            boolean useLimiter) {
+        this(
+                scheduledExecutorService,
+                taggedMetricRegistry,
+                timeout,
+                serviceClass,
+                useLimiter,
+                ConcurrencyLimitStrategy.aimd(),
+                ImmutableMap.of());
+    }
+
+    ConcurrencyLimiters(
+            ScheduledExecutorService scheduledExecutorService,
+            TaggedMetricRegistry taggedMetricRegistry,
+            Class<?> serviceClass,
+            boolean useLimiter,
+            ConcurrencyLimitStrategy defaultStrategy,
+            Map<String, ConcurrencyLimitStrategy> endpointStrategies) {
+        this(
+                scheduledExecutorService,
+                taggedMetricRegistry,
+                DEFAULT_TIMEOUT,
+                serviceClass,
+                useLimiter,
+                defaultStrategy,
+                endpointStrategies);
     }
 
     ConcurrencyLimiters(
@@ -98,38 +169,93 @@ final class ConcurrencyLimiters {
 
     @VisibleForTesting
     Limit newLimit() {
-        return new ConjureWindowedLimit(AIMDLimit.newBuilder()
-                /*
-                 * Requests slower than this timeout are treated as failures, which reduce concurrency. Since we have
-                 * plenty of long streaming requests, we set this timeout to 292.27726 years to effectively turn it off.
-                 */
-                .timeout(Long.MAX_VALUE, TimeUnit.NANOSECONDS)
-                /*
-                 * Our initial limit is pretty conservative - only 10 concurrent requests in flight at the same time. If
-                 * a client is consistently maxing out its concurrency permits, this increases additively once per
-                 * second (see {@link ConjureWindowedLimit#MIN_WINDOW_TIME}).
-                 */
-                .initialLimit(10)
-                /*
-                 * We reduce concurrency _immediately_ as soon as a request fails, which can result in drastic limit
-                 * reductions, e.g. starting with 30 concurrent permits, 100 failures in a row results in: 30 * 0.9^100
-                 * = 0.0007 (rounded up to the minLimit of 1).
-                 */
-                .backoffRatio(0.9)
-                /* However many failures we get, we always need at least 1 permit, so we can keep trying. */
-                .minLimit(1)
-                /* Note that the Dispatcher in {@link OkHttpClients} has a max concurrent requests too. */
-                .maxLimit(Integer.MAX_VALUE)
-                .build());
+        return newLimit(defaultStrategy);
+    }
+
+    @VisibleForTesting
+    ConcurrencyLimitStrategy strategyFor(Key limiterKey) {
+        return endpointStrategies.getOrDefault(limiterKey.endpoint(), defaultStrategy);
+    }
+
+    @VisibleForTesting
+    static Limit newLimit(ConcurrencyLimitStrategy strategy) {
+        switch (strategy.algorithm()) {
+            case AIMD:
+                return new ConjureWindowedLimit(AIMDLimit.newBuilder()
+                        /*
+                         * Requests slower than this timeout are treated as failures, which reduce concurrency. Since
+                         * we have plenty of long streaming requests, we set this timeout to 292.27726 years to
+                         * effectively turn it off.
+                         */
+                        .timeout(Long.MAX_VALUE, TimeUnit.NANOSECONDS)
+                        /*
+                         * Our default initial limit is pretty conservative - only 10 concurrent requests in flight at
+                         * the same time. If a client is consistently maxing out its concurrency permits, this
+                         * increases additively once per second (see {@link ConjureWindowedLimit#MIN_WINDOW_TIME}).
+                         */
+                        .initialLimit(strategy.initialLimit())
+                        /*
+                         * We reduce concurrency _immediately_ as soon as a request fails, which can result in drastic
+                         * limit reductions, e.g. starting with 30 concurrent permits, 100 failures in a row results in:
+                         * 30 * 0.9^100 = 0.0007 (rounded up to the minLimit of 1).
+                         */
+                        .backoffRatio(0.9)
+                        /* However many failures we get, we always need at least 1 permit, so we can keep trying. */
+                        .minLimit(1)
+                        /* Note that the Dispatcher in {@link OkHttpClients} has a max concurrent requests too. */
+                        .maxLimit(Integer.MAX_VALUE)
+                        .build());
+            case VEGAS:
+                return new ConjureWindowedLimit(VegasLimit.newBuilder()
+                        .initialLimit(strategy.initialLimit())
+                        .maxConcurrency(Integer.MAX_VALUE)
+                        .build());
+            case GRADIENT2:
+                return new ConjureWindowedLimit(Gradient2Limit.newBuilder()
+                        .initialLimit(strategy.initialLimit())
+                        .minLimit(1)
+                        .maxConcurrency(Integer.MAX_VALUE)
+                        .build());
+            case FIXED:
+                return FixedLimit.of(strategy.initialLimit());
+        }
+
+        throw new SafeIllegalStateException(
+                "Encountered unknown concurrency limit algorithm", SafeArg.of("algorithm", strategy.algorithm()));
     }
 
     private ConcurrencyLimiter newLimiter(Key limiterKey) {
         if (!useLimiter) {
             return NoOpConcurrencyLimiter.INSTANCE;
         }
+        ConcurrencyLimitStrategy strategy = strategyFor(limiterKey);
         Supplier<SimpleLimiter<Void>> limiter =
-                () -> SimpleLimiter.newBuilder().limit(newLimit()).build();
-        return new DefaultConcurrencyLimiter(limiterKey, limiter);
+                () -> SimpleLimiter.newBuilder().limit(newLimit(strategy)).build();
+        DefaultConcurrencyLimiter result = new DefaultConcurrencyLimiter(limiterKey, limiter);
+        registerGauges(limiterKey, result);
+        return result;
+    }
+
+    private void registerGauges(Key limiterKey, DefaultConcurrencyLimiter limiter) {
+        if (gaugedLimiters.incrementAndGet() > MAX_GAUGED_LIMITERS) {
+            return;
+        }
+        String serviceClassName = serviceClass.getSimpleName();
+        metrics.requestPermitLimit()
+                .serviceClass(serviceClassName)
+                .hostname(limiterKey.hostname())
+                .endpoint(limiterKey.endpoint())
+                .build(limiter::limit);
+        metrics.requestPermitInflight()
+                .serviceClass(serviceClassName)
+                .hostname(limiterKey.hostname())
+                .endpoint(limiterKey.endpoint())
+                .build(limiter::inflight);
+        metrics.requestPermitQueued()
+                .serviceClass(serviceClassName)
+                .hostname(limiterKey.hostname())
+                .endpoint(limiterKey.endpoint())
+                .build(limiter::queued);
     }
 
     private Key limiterKey(Request request) {
@@ -152,6 +278,18 @@ final class ConcurrencyLimiters {
         Optional<String> method();
 
         Optional<String> pathTemplate();
+
+        /**
+         * The HTTP method and path template separated by a single space, as used to configure
+         * {@link com.palantir.conjure.java.client.config.ClientConfiguration#endpointConcurrencyLimitStrategies}.
+         */
+        @Value.Derived
+        default String endpoint() {
+            if (method().isPresent() && pathTemplate().isPresent()) {
+                return method().get() + " " + pathTemplate().get();
+            }
+            return UNKNOWN_ENDPOINT;
+        }
     }
 
     /**
@@ -167,7 +305,12 @@ final class ConcurrencyLimiters {
     public interface ConcurrencyLimiter {
         ListenableFuture<Limiter.Listener> acquire();
 
+        /** A constant name for the span covering the wait for a permit, see {@link Tags.LimiterSpanTags}. */
         String spanName();
+
+        int limit();
+
+        int inflight();
     }
 
     static final class NoOpConcurrencyLimiter implements ConcurrencyLimiter {
@@ -184,6 +327,16 @@ final class ConcurrencyLimiters {
             return "OkHttp: no-op-concurrency-limiter";
         }
 
+        @Override
+        public int limit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int inflight() {
+            return 0;
+        }
+
         static final class NoOpLimiterListener implements Limiter.Listener {
             @Override
             public void onSuccess() {}
@@ -196,16 +349,34 @@ final class ConcurrencyLimiters {
         }
     }
 
+    /**
+     * Limiter state is only ever mutated by a single draining thread at a time. Threads calling {@link #acquire} or
+     * releasing a permit hand their work over through a lock-free queue and a work-in-progress counter, so that no
+     * request thread ever blocks on another: whichever thread moves the counter away from zero drains the queue on
+     * behalf of all others, and any work submitted while it is draining causes it to loop again.
+     */
     final class DefaultConcurrencyLimiter implements ConcurrencyLimiter {
-        @GuardedBy("this")
-        private final ThreadWorkQueue<QueuedRequest> waitingRequests = new ThreadWorkQueue<>();
+        /** Requests which have been submitted but not yet moved into {@link #waitingRequests}. */
+        private final Queue<QueuedRequest> submittedRequests = new ConcurrentLinkedQueue<>();
 
-        @GuardedBy("this")
-        private SimpleLimiter<Void> limiter;
+        /** Number of requests which have been submitted but not yet granted a permit. */
+        private final AtomicInteger queued = new AtomicInteger();
 
-        @GuardedBy("this")
+        /** Number of outstanding drain requests, the thread which increments this from zero performs the drain. */
+        private final AtomicInteger drainRequests = new AtomicInteger();
+
+        /** Only accessed by the draining thread. */
+        private final ThreadWorkQueue<QueuedRequest> waitingRequests = new ThreadWorkQueue<>();
+
+        /** Only accessed by the draining thread. */
         private ScheduledFuture<?> timeoutCleanup;
 
+        /** Set when permits timed out, so that the draining thread replaces the limiter. */
+        private final AtomicBoolean resetRequested = new AtomicBoolean();
+
+        /** Only replaced by the draining thread, volatile for the gauges. */
+        private volatile SimpleLimiter<Void> limiter;
+
         private final Key limiterKey;
         private final Supplier<SimpleLimiter<Void>> limiterFactory;
         private final LeakDetector<Limiter.Listener> leakDetector = new LeakDetector<>(Limiter.Listener.class);
@@ -217,32 +388,76 @@ final class ConcurrencyLimiters {
         }
 
         @Override
-        public synchronized String spanName() {
-            return String.format(
-                    "OkHttp: client-side-concurrency-limiter %d/%d", limiter.getInflight(), limiter.getLimit());
+        public int limit() {
+            return limiter.getLimit();
+        }
+
+        @Override
+        public int inflight() {
+            return limiter.getInflight();
+        }
+
+        int queued() {
+            return queued.get();
+        }
+
+        /**
+         * Constant, so that no work is done per request. The current limit and inflight count are attached to sampled
+         * spans as tags, and are always reported by the {@code request-permit} gauges.
+         */
+        @Override
+        public String spanName() {
+            return SPAN_NAME;
         }
 
         @Override
-        public synchronized ListenableFuture<Limiter.Listener> acquire() {
+        public ListenableFuture<Limiter.Listener> acquire() {
             SettableFuture<Limiter.Listener> future = SettableFuture.create();
             addSlowAcquireMarker(future);
-            waitingRequests.add(new QueuedRequest(future, LeakDetector.maybeCreateStackTrace()));
+            queued.incrementAndGet();
+            submittedRequests.add(new QueuedRequest(
+                    future, Thread.currentThread().getId(), LeakDetector.maybeCreateStackTrace()));
             processQueue();
             return future;
         }
 
-        synchronized void processQueue() {
-            while (!waitingRequests.isEmpty()) {
+        void processQueue() {
+            if (drainRequests.getAndIncrement() != 0) {
+                // Another thread is draining, and will pick up our work before it finishes.
+                return;
+            }
+            int missed = 1;
+            do {
+                drain();
+                missed = drainRequests.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (resetRequested.getAndSet(false)) {
+                limiter = limiterFactory.get();
+            }
+
+            QueuedRequest submitted;
+            while ((submitted = submittedRequests.poll()) != null) {
+                waitingRequests.add(submitted.threadId, submitted);
+            }
+
+            for (int granted = 0; !waitingRequests.isEmpty(); granted++) {
+                if (granted == MAX_PERMITS_PER_DRAIN && continueOnScheduler()) {
+                    return;
+                }
+                SimpleLimiter<Void> current = limiter;
                 if (log.isDebugEnabled()) {
                     log.debug(
                             "Limit",
-                            SafeArg.of("limit", limiter.getLimit()),
-                            SafeArg.of("queueLength", waitingRequests.size()),
+                            SafeArg.of("limit", current.getLimit()),
+                            SafeArg.of("queueLength", queued.get()),
                             SafeArg.of("method", limiterKey.method()),
                             SafeArg.of("pathTemplate", limiterKey.pathTemplate()),
                             UnsafeArg.of("hostname", limiterKey.hostname()));
                 }
-                Optional<Limiter.Listener> maybeAcquired = limiter.acquire(/* no context */ null);
+                Optional<Limiter.Listener> maybeAcquired = current.acquire(/* no context */ null);
                 if (maybeAcquired.isEmpty()) {
                     if (!timeoutScheduled()) {
                         timeoutCleanup = scheduledExecutorService.schedule(
@@ -253,9 +468,12 @@ final class ConcurrencyLimiters {
                 Limiter.Listener acquired = maybeAcquired.get();
 
                 QueuedRequest request = waitingRequests.remove();
+                queued.decrementAndGet();
 
                 SettableFuture<Limiter.Listener> head = request.future;
                 Limiter.Listener wrapped = wrap(acquired, request.allocationStackTrace);
+                // Listeners of the future run on this thread. Any permit they release only registers a further drain
+                // request, which is picked up by the enclosing loop in processQueue rather than recursing.
                 boolean wasCancelled = !head.set(wrapped);
                 if (wasCancelled) {
                     wrapped.onIgnore();
@@ -267,11 +485,21 @@ final class ConcurrencyLimiters {
             }
         }
 
-        private synchronized boolean timeoutScheduled() {
+        /** Returns false, in which case the caller carries on draining, if the scheduler no longer accepts tasks. */
+        private boolean continueOnScheduler() {
+            try {
+                scheduledExecutorService.execute(this::processQueue);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+
+        private boolean timeoutScheduled() {
             return timeoutCleanup != null && !timeoutCleanup.isDone() && !timeoutCleanup.isCancelled();
         }
 
-        private synchronized void resetLimiter() {
+        private void resetLimiter() {
             log.warn(
                     "Timed out waiting to get permits for concurrency. In most cases this would indicate some kind of "
                             + "deadlock. We expect that either this is caused by either service overloading, or not "
@@ -282,7 +510,7 @@ final class ConcurrencyLimiters {
                     SafeArg.of("pathTemplate", limiterKey.pathTemplate()),
                     SafeArg.of("timeout", timeout));
             leakSuspected.mark();
-            limiter = limiterFactory.get();
+            resetRequested.set(true);
             processQueue();
         }
 
@@ -383,11 +611,15 @@ final class ConcurrencyLimiters {
 
     private static final class QueuedRequest {
         private final SettableFuture<Limiter.Listener> future;
+        private final long threadId;
         private final Optional<RuntimeException> allocationStackTrace;
 
         private QueuedRequest(
-                SettableFuture<Limiter.Listener> future, Optional<RuntimeException> allocationStackTrace) {
+                SettableFuture<Limiter.Listener> future,
+                long threadId,
+                Optional<RuntimeException> allocationStackTrace) {
             this.future = future;
+            this.threadId = threadId;
             this.allocationStackTrace = allocationStackTrace;
         }
     }
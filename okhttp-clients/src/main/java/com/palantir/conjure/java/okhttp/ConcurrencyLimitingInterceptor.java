@@ -16,20 +16,21 @@
 
 package com.palantir.conjure.java.okhttp;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.netflix.concurrency.limits.Limiter;
 import com.palantir.logsafe.Preconditions;
 import java.io.IOException;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import okhttp3.Interceptor;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
 import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
 
 /**
  * Flow control in Conjure is a collaborative effort between servers and clients. Servers advertise an overloaded state
@@ -48,7 +49,8 @@ import okio.BufferedSource;
  * <p>429 and 503 response codes are used for backpressure, whilst 200 -> 399 request codes are used for determining new
  * limits and all other codes are not factored in to timings.
  *
- * <p>Concurrency permits are only released when the response body is closed.
+ * <p>Concurrency permits are only released when the response body is exhausted or closed, except for responses served
+ * from the response cache, whose permits are released immediately without being factored in to timings.
  */
 final class ConcurrencyLimitingInterceptor implements Interceptor {
     private static final ImmutableSet<Integer> DROPPED_CODES = ImmutableSet.of(429, 503);
@@ -68,7 +70,11 @@ final class ConcurrencyLimitingInterceptor implements Interceptor {
 
         try {
             Response response = chain.proceed(chain.request());
-            if (DROPPED_CODES.contains(response.code())) {
+            if (CacheInstrumentingInterceptor.servedFromCache(response)) {
+                // Cache hits say nothing about the server's capacity, and would skew the latency estimate
+                listener.onIgnore();
+                return response;
+            } else if (DROPPED_CODES.contains(response.code())) {
                 listener.onDropped();
                 return response;
             } else if (!response.isSuccessful() || response.isRedirect()) {
@@ -99,35 +105,44 @@ final class ConcurrencyLimitingInterceptor implements Interceptor {
         return response.newBuilder().body(newResponseBody).build();
     }
 
-    private static BufferedSource wrapSource(BufferedSource currentSource, Limiter.Listener listener) {
-        return (BufferedSource) Proxy.newProxyInstance(
-                BufferedSource.class.getClassLoader(),
-                new Class<?>[] {BufferedSource.class},
-                new ReleaseConcurrencyLimitProxy(currentSource, listener));
+    @VisibleForTesting
+    static BufferedSource wrapSource(BufferedSource currentSource, Limiter.Listener listener) {
+        return Okio.buffer(new ReleaseConcurrencyLimitSource(currentSource, listener));
     }
 
-    /** This proxy enables e.g. Okio to make additive additions to their API without breaking us. */
-    private static final class ReleaseConcurrencyLimitProxy implements InvocationHandler {
-        private final BufferedSource delegate;
+    /**
+     * Releases the concurrency limit permit once the response body is either exhausted or closed. Wrapping the plain
+     * {@link Source} rather than the {@link BufferedSource} enables e.g. Okio to make additive additions to their API
+     * without breaking us, without paying for reflection on every read.
+     */
+    private static final class ReleaseConcurrencyLimitSource extends ForwardingSource {
         private final Limiter.Listener listener;
-        private boolean closed = false;
+        private boolean released = false;
 
-        private ReleaseConcurrencyLimitProxy(BufferedSource delegate, Limiter.Listener listener) {
-            this.delegate = delegate;
+        private ReleaseConcurrencyLimitSource(Source delegate, Limiter.Listener listener) {
+            super(delegate);
             this.listener = listener;
         }
 
         @Override
-        public Object invoke(Object _proxy, Method method, Object[] args) throws Throwable {
-            if (method.getName().equals("close") && !closed) {
-                closed = true;
-                listener.onSuccess();
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read == -1) {
+                release();
             }
+            return read;
+        }
 
-            try {
-                return method.invoke(delegate, args);
-            } catch (InvocationTargetException e) {
-                throw e.getCause();
+        @Override
+        public void close() throws IOException {
+            release();
+            super.close();
+        }
+
+        private void release() {
+            if (!released) {
+                released = true;
+                listener.onSuccess();
             }
         }
     }
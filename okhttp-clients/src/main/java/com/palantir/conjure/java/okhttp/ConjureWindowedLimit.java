@@ -33,14 +33,17 @@ package com.palantir.conjure.java.okhttp;
 
 import com.netflix.concurrency.limits.Limit;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
  * Changes made from {@link com.netflix.concurrency.limits.limit.WindowedLimit}:
  *
  * <p>1. Modify to reduce window size whenever a dropped sample is seen, rather than awaiting the whole window. 2.
- * Change package and make package private. 3. Code style. 4. Inlined constants.
+ * Change package and make package private. 3. Code style. 4. Inlined constants. 5. Accumulate samples in striped
+ * {@link LongAdder} and {@link LongAccumulator} cells rather than replacing an immutable window on every sample, so that
+ * recording a sample neither allocates nor retries under contention. The lock is still taken to roll the window.
  */
 class ConjureWindowedLimit implements Limit {
     private static final long MIN_WINDOW_TIME = TimeUnit.SECONDS.toNanos(1);
@@ -57,8 +60,8 @@ class ConjureWindowedLimit implements Limit {
 
     private final Object lock = new Object();
 
-    /** Object tracking stats for the current sample window. */
-    private final AtomicReference<ImmutableSampleWindow> sample = new AtomicReference<>(new ImmutableSampleWindow());
+    /** Tracks stats for the current sample window, replaced when the window rolls. */
+    private volatile SampleWindow sample = new SampleWindow();
 
     ConjureWindowedLimit(Limit delegate) {
         this.delegate = delegate;
@@ -77,20 +80,20 @@ class ConjureWindowedLimit implements Limit {
             return;
         }
 
-        final ImmutableSampleWindow currentSample;
+        SampleWindow currentSample = sample;
         if (didDrop) {
-            currentSample = sample.updateAndGet(current -> current.addDroppedSample(inflight));
+            currentSample.addDroppedSample(inflight);
         } else {
-            currentSample = sample.updateAndGet(window -> window.addSample(rtt, inflight));
+            currentSample.addSample(rtt, inflight);
         }
 
         if (endTime > nextUpdateTime || currentSample.didDrop()) {
             synchronized (lock) {
                 // Double check under the lock
-                if (endTime > nextUpdateTime || sample.get().didDrop()) {
-                    ImmutableSampleWindow current = sample.get();
+                if (endTime > nextUpdateTime || sample.didDrop()) {
+                    SampleWindow current = sample;
                     if (isWindowReady(current)) {
-                        sample.set(new ImmutableSampleWindow());
+                        sample = new SampleWindow();
                         nextUpdateTime = endTime
                                 + Math.min(
                                         Math.max(current.getCandidateRttNanos() * 2, MIN_WINDOW_TIME), MAX_WINDOW_TIME);
@@ -103,7 +106,7 @@ class ConjureWindowedLimit implements Limit {
         }
     }
 
-    private static boolean isWindowReady(ImmutableSampleWindow sample) {
+    private static boolean isWindowReady(SampleWindow sample) {
         return sample.didDrop() || sample.getSampleCount() > WINDOW_SIZE;
     }
 
@@ -111,4 +114,59 @@ class ConjureWindowedLimit implements Limit {
     public int getLimit() {
         return delegate.getLimit();
     }
+
+    /**
+     * Replaces {@link com.netflix.concurrency.limits.limit.ImmutableSampleWindow}. Samples racing with a roll of the
+     * window may be recorded in the window being rolled after it has been read, and are then lost, as they were when
+     * the immutable window was replaced.
+     */
+    private static final class SampleWindow {
+        private final LongAccumulator minRtt = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        private final LongAccumulator maxInFlight = new LongAccumulator(Math::max, 0);
+        private final LongAdder sampleCount = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private volatile boolean didDrop = false;
+
+        void addSample(long rtt, int currentMaxInFlight) {
+            // Most samples change neither extreme, and reading is cheaper than accumulating
+            if (rtt < minRtt.get()) {
+                minRtt.accumulate(rtt);
+            }
+            sum.add(rtt);
+            addInFlight(currentMaxInFlight);
+            sampleCount.increment();
+        }
+
+        void addDroppedSample(int currentMaxInFlight) {
+            addInFlight(currentMaxInFlight);
+            didDrop = true;
+        }
+
+        private void addInFlight(int currentMaxInFlight) {
+            if (currentMaxInFlight > maxInFlight.get()) {
+                maxInFlight.accumulate(currentMaxInFlight);
+            }
+        }
+
+        long getCandidateRttNanos() {
+            return minRtt.get();
+        }
+
+        long getAverageRttNanos() {
+            long count = sampleCount.sum();
+            return count == 0 ? 0 : sum.sum() / count;
+        }
+
+        int getMaxInFlight() {
+            return (int) maxInFlight.get();
+        }
+
+        long getSampleCount() {
+            return sampleCount.sum();
+        }
+
+        boolean didDrop() {
+            return didDrop;
+        }
+    }
 }
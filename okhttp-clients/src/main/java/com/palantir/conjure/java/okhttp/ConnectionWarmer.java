@@ -0,0 +1,70 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.io.IOException;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Opens connections to a client's base URLs ahead of its first requests. OkHttp cannot open a connection without
+ * making a request, so this sends concurrent {@code HEAD} requests to each base URL and discards the responses; the
+ * connections they opened are then idle in the pool, ready for reuse.
+ */
+final class ConnectionWarmer {
+    private static final SafeLogger log = SafeLoggerFactory.get(ConnectionWarmer.class);
+
+    private ConnectionWarmer() {}
+
+    /**
+     * Asynchronously opens up to {@code connectionsPerUrl} connections to each of the given URLs, using the given
+     * client's dispatcher. The client must share its connection pool and connection settings with the client whose
+     * requests should use the connections, but not the interceptors which expect requests made through
+     * {@link RemotingOkHttpClient}.
+     */
+    static void warmUp(OkHttpClient client, List<HttpUrl> baseUrls, int connectionsPerUrl) {
+        for (HttpUrl baseUrl : baseUrls) {
+            Request request = new Request.Builder().url(baseUrl).head().build();
+            for (int i = 0; i < connectionsPerUrl; i++) {
+                client.newCall(request).enqueue(new Callback() {
+                    @Override
+                    public void onFailure(Call _call, IOException exception) {
+                        log.debug(
+                                "Failed to warm up connection",
+                                SafeArg.of("connectionsPerUrl", connectionsPerUrl),
+                                UnsafeArg.of("baseUrl", baseUrl),
+                                exception);
+                    }
+
+                    @Override
+                    public void onResponse(Call _call, Response response) {
+                        response.close();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Sends the time remaining until the request's {@link Tags.Deadline} in the {@value RequestDeadline#HEADER} header, so
+ * that the server can reject requests the client will no longer wait for.
+ */
+enum DeadlineHeaderInterceptor implements Interceptor {
+    INSTANCE;
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Tags.Deadline deadline = request.tag(Tags.Deadline.class);
+        if (deadline == null) {
+            return chain.proceed(request);
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos());
+        return chain.proceed(request.newBuilder()
+                .header(RequestDeadline.HEADER, Long.toString(remainingMillis))
+                .build());
+    }
+}
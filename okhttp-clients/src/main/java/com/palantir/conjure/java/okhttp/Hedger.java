@@ -0,0 +1,160 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.SlidingWindowReservoir;
+import com.codahale.metrics.Snapshot;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.conjure.java.client.config.HedgingPolicy;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Request;
+
+/**
+ * Per-client state for {@link HedgingPolicy request hedging}: the recent response latency of hedgeable requests, from
+ * which the hedging delay is derived, and the budget which limits the number of hedges sent.
+ *
+ * <p>The budget is a token bucket: each eligible request deposits {@link HedgingPolicy#budgetRatio} of a token, and
+ * each hedge withdraws a whole token, so that over time at most that fraction of requests are hedged.
+ */
+final class Hedger {
+    private static final Hedger DISABLED = new Hedger(null, null, null, null);
+
+    /** Until enough latencies have been observed, the percentile is meaningless, so requests are not hedged. */
+    @VisibleForTesting
+    static final int MIN_SAMPLES = 20;
+
+    /**
+     * The number of most recent latencies from which the percentile is computed. Bounding the reservoir bounds both
+     * its memory and the cost of the snapshot, which copies and sorts every sample.
+     */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    /** Computing a percentile requires a snapshot of the reservoir, so the delay is recomputed at most this often. */
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long MILLITOKENS_PER_HEDGE = 1000;
+    /** Bounds the burst of hedges which can be sent after a long period without any. */
+    private static final long MAX_MILLITOKENS = 10 * MILLITOKENS_PER_HEDGE;
+
+    private final HedgingPolicy policy;
+    private final Meter hedgesSent;
+    private final Meter hedgesWon;
+    private final Histogram latencyMicros = new Histogram(new SlidingWindowReservoir(LATENCY_SAMPLES));
+    /** Runs the recomputation of the delay, so that requests never wait for it. */
+    private final Executor refreshExecutor;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong budgetMillitokens = new AtomicLong();
+    private final long depositMillitokens;
+
+    private volatile long delayMicros = -1;
+    private volatile long delayComputedAtNanos;
+
+    private Hedger(HedgingPolicy policy, Meter hedgesSent, Meter hedgesWon, Executor refreshExecutor) {
+        this.policy = policy;
+        this.refreshExecutor = refreshExecutor;
+        this.hedgesSent = hedgesSent;
+        this.hedgesWon = hedgesWon;
+        this.depositMillitokens = policy == null ? 0 : Math.round(policy.budgetRatio() * MILLITOKENS_PER_HEDGE);
+        this.delayComputedAtNanos = System.nanoTime() - DELAY_REFRESH_NANOS;
+    }
+
+    static Hedger create(
+            HedgingPolicy policy, ClientMetrics metrics, String serviceName, Executor refreshExecutor) {
+        return new Hedger(policy, metrics.hedgeSent(serviceName), metrics.hedgeWon(serviceName), refreshExecutor);
+    }
+
+    static Hedger disabled() {
+        return DISABLED;
+    }
+
+    /** Only idempotent requests without a body are hedged, since they are sent twice. */
+    boolean isEligible(Request request) {
+        return policy != null && "GET".equals(request.method()) && request.body() == null;
+    }
+
+    /** Deposits this request's share of the budget. Called once for each eligible request. */
+    void recordRequest() {
+        long current;
+        do {
+            current = budgetMillitokens.get();
+            if (current >= MAX_MILLITOKENS) {
+                return;
+            }
+        } while (!budgetMillitokens.compareAndSet(
+                current, Math.min(MAX_MILLITOKENS, current + depositMillitokens)));
+    }
+
+    boolean tryAcquireBudget() {
+        long current;
+        do {
+            current = budgetMillitokens.get();
+            if (current < MILLITOKENS_PER_HEDGE) {
+                return false;
+            }
+        } while (!budgetMillitokens.compareAndSet(current, current - MILLITOKENS_PER_HEDGE));
+        return true;
+    }
+
+    void recordLatency(long micros) {
+        latencyMicros.update(micros);
+    }
+
+    /**
+     * Returns how long to wait for a response before sending a hedge, in microseconds, or -1 if not enough responses
+     * have been observed yet. The delay is recomputed on the refresh executor once it is stale, and the previous delay
+     * is returned in the meantime.
+     */
+    long hedgeDelayMicros() {
+        long now = System.nanoTime();
+        if (now - delayComputedAtNanos >= DELAY_REFRESH_NANOS && refreshing.compareAndSet(false, true)) {
+            delayComputedAtNanos = now;
+            try {
+                refreshExecutor.execute(this::refreshDelay);
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+            }
+        }
+        return delayMicros;
+    }
+
+    private void refreshDelay() {
+        try {
+            Snapshot snapshot = latencyMicros.getSnapshot();
+            delayMicros = snapshot.size() < MIN_SAMPLES
+                    ? -1
+                    : Math.max(
+                            TimeUnit.NANOSECONDS.toMicros(policy.minimumDelay().toNanos()),
+                            (long) snapshot.getValue(policy.latencyPercentile()));
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    void markSent() {
+        hedgesSent.mark();
+    }
+
+    void markWon() {
+        hedgesWon.mark();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.net.HostAndPort;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.HttpUrl;
+
+/**
+ * Tracks the number of in-flight requests and an exponentially weighted moving average (EWMA) of response latency for
+ * each host and port, as observed by {@link InstrumentedInterceptor}. Used by
+ * {@link com.palantir.conjure.java.client.config.NodeSelectionStrategy#BALANCED} to prefer the least loaded node.
+ */
+final class HostLoadTracker {
+
+    /** Returned for all hosts by {@link #disabled}, so that clients which never read scores do no bookkeeping. */
+    private static final HostLoad NO_OP_LOAD = new HostLoad() {
+        @Override
+        void requestStarted() {}
+
+        @Override
+        void requestFinished(long _micros) {}
+    };
+
+    private static final HostLoadTracker DISABLED = new HostLoadTracker(false);
+
+    /** Weight of each new latency sample, such that a node's score reflects roughly its last 10 responses. */
+    @VisibleForTesting
+    static final double ALPHA = 0.2;
+
+    private final boolean enabled;
+    private final ConcurrentMap<HostAndPort, HostLoad> loads = new ConcurrentHashMap<>();
+
+    private HostLoadTracker(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    static HostLoadTracker create() {
+        return new HostLoadTracker(true);
+    }
+
+    static HostLoadTracker disabled() {
+        return DISABLED;
+    }
+
+    HostLoad forHost(String host, int port) {
+        if (!enabled) {
+            return NO_OP_LOAD;
+        }
+        return loads.computeIfAbsent(HostAndPort.fromParts(host, port), _key -> new HostLoad());
+    }
+
+    HostLoad forUrl(HttpUrl url) {
+        return forHost(url.host(), url.port());
+    }
+
+    static class HostLoad {
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final AtomicLong ewmaMicrosBits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+        void requestStarted() {
+            inflight.incrementAndGet();
+        }
+
+        void requestFinished(long micros) {
+            inflight.decrementAndGet();
+            long current;
+            long updated;
+            do {
+                current = ewmaMicrosBits.get();
+                double ewma = Double.longBitsToDouble(current);
+                updated = Double.doubleToRawLongBits(ewma == 0 ? micros : ewma + ALPHA * (micros - ewma));
+            } while (!ewmaMicrosBits.compareAndSet(current, updated));
+        }
+
+        int inflight() {
+            return inflight.get();
+        }
+
+        double ewmaMicros() {
+            return Double.longBitsToDouble(ewmaMicrosBits.get());
+        }
+
+        /**
+         * Lower is better. Approximates the time a new request would take to complete, assuming requests already in
+         * flight are served one at a time. Hosts which have not responded yet score zero, so that they are tried.
+         */
+        double score() {
+            return (inflight() + 1) * ewmaMicros();
+        }
+    }
+}
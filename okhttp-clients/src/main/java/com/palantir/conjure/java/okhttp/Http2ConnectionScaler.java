@@ -0,0 +1,300 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.net.HostAndPort;
+import com.palantir.conjure.java.client.config.Http2ConnectionScaling;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricSet;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.Dns;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+
+/**
+ * Spreads requests to a host over several HTTP/2 connections according to an {@link Http2ConnectionScaling} policy.
+ *
+ * <p>OkHttp only shares a connection between requests whose {@link okhttp3.Address addresses} are equal, and the
+ * {@link Dns} is part of the address. Requests for connection {@code i > 0} are therefore sent through a copy of the
+ * client with its own {@link #dns Dns}, which resolves hosts exactly like the client's but keeps the connections
+ * apart. Installed as the {@link EventListener} of those clients, the scaler counts the requests in flight on each
+ * connection, and sends new requests to the first connection which is below the utilization threshold.
+ *
+ * <p>Requests choose a connection before they acquire it, so a burst of requests may overshoot the threshold. OkHttp
+ * still opens a further connection within the same index once the server's stream limit is reached.
+ *
+ * <p>Hosts without requests in flight for {@link #IDLE_HOST_EXPIRY} are forgotten, along with their gauges, so that a
+ * client sending requests to many different hosts over its lifetime does not accumulate them.
+ */
+final class Http2ConnectionScaler extends EventListener implements TaggedMetricSet {
+    private static final Http2ConnectionScaler DISABLED =
+            new Http2ConnectionScaler(1, Integer.MAX_VALUE, Ticker.systemTicker());
+    private static final Duration IDLE_HOST_EXPIRY = Duration.ofMinutes(10);
+
+    private final int maxConnections;
+    private final int scaleUpStreams;
+    private final Ticker ticker;
+    private final ConcurrentMap<HostAndPort, HostStreams> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong nextExpiryNanos;
+
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+    private final OkhttpMetrics metrics = OkhttpMetrics.of(registry);
+    private final Meter saturated = metrics.http2Saturated();
+
+    @VisibleForTesting
+    Http2ConnectionScaler(int maxConnections, int scaleUpStreams, Ticker ticker) {
+        this.maxConnections = maxConnections;
+        this.scaleUpStreams = scaleUpStreams;
+        this.ticker = ticker;
+        this.nextExpiryNanos = new AtomicLong(ticker.read() + IDLE_HOST_EXPIRY.toNanos());
+    }
+
+    static Http2ConnectionScaler create(Http2ConnectionScaling policy) {
+        return create(policy, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    static Http2ConnectionScaler create(Http2ConnectionScaling policy, Ticker ticker) {
+        return new Http2ConnectionScaler(
+                policy.maxConnectionsPerHost(),
+                Math.max(1, (int) Math.ceil(policy.maxConcurrentStreams() * policy.streamUtilizationThreshold())),
+                ticker);
+    }
+
+    /** A scaler which sends every request through the client itself. */
+    static Http2ConnectionScaler disabled() {
+        return DISABLED;
+    }
+
+    int maxConnectionsPerHost() {
+        return maxConnections;
+    }
+
+    /**
+     * Returns the {@link Dns} for the copy of a client which sends requests on the given connection index, resolving
+     * hosts with the client's own {@link Dns}.
+     *
+     * <p>The returned {@link Dns} compares by identity, so each call returns a {@link Dns} whose connections are
+     * distinct from those of any other, including the connections of other clients sharing the connection pool.
+     */
+    static Dns dns(Dns delegate, int connection) {
+        return connection == 0 ? delegate : new ConnectionDns(delegate, connection);
+    }
+
+    /** Returns the index of the connection the next request to the given URL should be sent on. */
+    int connectionFor(HttpUrl url) {
+        if (maxConnections == 1) {
+            return 0;
+        }
+        HostStreams host = hosts.get(HostAndPort.fromParts(url.host(), url.port()));
+        if (host == null) {
+            return 0;
+        }
+        AtomicIntegerArray streams = host.streams;
+        int leastLoaded = 0;
+        for (int connection = 0; connection < maxConnections; connection++) {
+            int inFlight = streams.get(connection);
+            if (inFlight < scaleUpStreams) {
+                return connection;
+            }
+            if (inFlight < streams.get(leastLoaded)) {
+                leastLoaded = connection;
+            }
+        }
+        saturated.mark();
+        return leastLoaded;
+    }
+
+    @Override
+    public void connectionAcquired(Call _call, Connection connection) {
+        if (!isHttp2(connection)) {
+            return;
+        }
+        HostAndPort host = hostOf(connection);
+        while (true) {
+            HostStreams streams = streamsFor(host);
+            if (streams.acquire(indexOf(connection))) {
+                return;
+            }
+            // Expired concurrently, make sure it is gone before trying again
+            remove(host, streams);
+        }
+    }
+
+    @Override
+    public void connectionReleased(Call _call, Connection connection) {
+        if (!isHttp2(connection)) {
+            return;
+        }
+        // Hosts are only expired once no requests are in flight, so the host this request was counted on is current
+        HostStreams streams = hosts.get(hostOf(connection));
+        if (streams != null) {
+            long now = ticker.read();
+            streams.release(indexOf(connection), now);
+            expireIdleHosts(now);
+        }
+    }
+
+    @Override
+    public Map<MetricName, Metric> getMetrics() {
+        return registry.getMetrics();
+    }
+
+    private HostStreams streamsFor(HostAndPort host) {
+        HostStreams streams = hosts.get(host);
+        if (streams != null) {
+            return streams;
+        }
+        return hosts.computeIfAbsent(host, _host -> {
+            HostStreams created = new HostStreams(maxConnections, ticker.read());
+            for (int connection = 0; connection < maxConnections; connection++) {
+                int index = connection;
+                metrics.http2StreamsPerConnection()
+                        .hostname(host.getHost())
+                        .port(Integer.toString(host.getPort()))
+                        .connection(Integer.toString(connection))
+                        .build(() -> created.streams.get(index));
+            }
+            return created;
+        });
+    }
+
+    /** Forgets hosts idle for longer than {@link #IDLE_HOST_EXPIRY}, at most once per {@link #IDLE_HOST_EXPIRY}. */
+    private void expireIdleHosts(long now) {
+        long next = nextExpiryNanos.get();
+        if (now - next < 0 || !nextExpiryNanos.compareAndSet(next, now + IDLE_HOST_EXPIRY.toNanos())) {
+            return;
+        }
+        hosts.forEach((host, streams) -> {
+            if (streams.expireIfIdleSince(now - IDLE_HOST_EXPIRY.toNanos())) {
+                remove(host, streams);
+            }
+        });
+    }
+
+    /**
+     * Removes an expired host and its gauges. Gauges are removed under the same lock {@link #streamsFor} registers them
+     * with, so the gauges of a host which is concurrently used again are left alone.
+     */
+    private void remove(HostAndPort host, HostStreams expired) {
+        hosts.computeIfPresent(host, (_host, current) -> {
+            if (current != expired) {
+                return current;
+            }
+            String hostname = host.getHost();
+            String port = Integer.toString(host.getPort());
+            registry.getMetrics().keySet().stream()
+                    .filter(name -> hostname.equals(name.safeTags().get("hostname"))
+                            && port.equals(name.safeTags().get("port")))
+                    .forEach(registry::remove);
+            return null;
+        });
+    }
+
+    private static HostAndPort hostOf(Connection connection) {
+        HttpUrl url = connection.route().address().url();
+        return HostAndPort.fromParts(url.host(), url.port());
+    }
+
+    private static int indexOf(Connection connection) {
+        Dns connectionDns = connection.route().address().dns();
+        return connectionDns instanceof ConnectionDns ? ((ConnectionDns) connectionDns).connection : 0;
+    }
+
+    private static boolean isHttp2(Connection connection) {
+        return connection.protocol() == Protocol.HTTP_2 || connection.protocol() == Protocol.H2_PRIOR_KNOWLEDGE;
+    }
+
+    /** Requests in flight to a host on each of its connections. */
+    private static final class HostStreams {
+        private static final int EXPIRED = -1;
+
+        private final AtomicIntegerArray streams;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lastReleasedNanos;
+
+        HostStreams(int maxConnections, long now) {
+            this.streams = new AtomicIntegerArray(maxConnections);
+            this.lastReleasedNanos = now;
+        }
+
+        /** Counts a request on the given connection, unless the host has expired. */
+        boolean acquire(int connection) {
+            int current;
+            do {
+                current = inFlight.get();
+                if (current == EXPIRED) {
+                    return false;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            streams.incrementAndGet(connection);
+            return true;
+        }
+
+        void release(int connection, long now) {
+            lastReleasedNanos = now;
+            streams.decrementAndGet(connection);
+            inFlight.decrementAndGet();
+        }
+
+        /** Marks the host as expired if it has had no requests in flight since the given time. */
+        boolean expireIfIdleSince(long idleSinceNanos) {
+            return lastReleasedNanos - idleSinceNanos <= 0 && inFlight.compareAndSet(0, EXPIRED);
+        }
+    }
+
+    /**
+     * Resolves hosts like its delegate, but is distinct from it so that its connections are not shared.
+     *
+     * <p>This relies on OkHttp pooling connections by {@link okhttp3.Address}, whose equality includes the {@link Dns}:
+     * two requests only share a connection if their {@link Dns} instances are equal. This class must therefore keep
+     * the identity equality of {@link Object#equals}, since equal instances would put requests meant for different
+     * connection indices back on the same connection.
+     */
+    private static final class ConnectionDns implements Dns {
+        private final Dns delegate;
+        private final int connection;
+
+        ConnectionDns(Dns delegate, int connection) {
+            this.delegate = delegate;
+            this.connection = connection;
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            return delegate.lookup(hostname);
+        }
+    }
+}
@@ -32,12 +32,19 @@ import okhttp3.Response;
 final class InstrumentedInterceptor implements Interceptor {
 
     private final HostEventsSink hostEventsSink;
+    private final HostLoadTracker hostLoads;
     private final String serviceName;
     private final Timer responseTimer;
     private final Meter ioExceptionMeter;
 
     InstrumentedInterceptor(ClientMetrics clientMetrics, HostEventsSink hostEventsSink, String serviceName) {
+        this(clientMetrics, hostEventsSink, HostLoadTracker.disabled(), serviceName);
+    }
+
+    InstrumentedInterceptor(
+            ClientMetrics clientMetrics, HostEventsSink hostEventsSink, HostLoadTracker hostLoads, String serviceName) {
         this.hostEventsSink = hostEventsSink;
+        this.hostLoads = hostLoads;
         this.serviceName = serviceName;
         this.responseTimer = clientMetrics.response(serviceName);
         this.ioExceptionMeter = clientMetrics
@@ -52,9 +59,12 @@ final class InstrumentedInterceptor implements Interceptor {
         HttpUrl url = chain.request().url();
         String hostname = url.host();
         int port = url.port();
+        HostLoadTracker.HostLoad hostLoad = hostLoads.forHost(hostname, port);
         Stopwatch stopwatch = Stopwatch.createStarted();
         Response response;
+        long micros;
 
+        hostLoad.requestStarted();
         try {
             response = chain.proceed(chain.request());
         } catch (IOException e) {
@@ -63,10 +73,13 @@ final class InstrumentedInterceptor implements Interceptor {
                 ioExceptionMeter.mark();
             }
             throw e;
+        } finally {
+            // Balances the in-flight count whatever the outcome, including unchecked exceptions from later
+            // interceptors. A failed request is as slow as it took to fail, so it counts towards the latency average.
+            micros = stopwatch.elapsed(TimeUnit.MICROSECONDS);
+            hostLoad.requestFinished(micros);
         }
 
-        long micros = stopwatch.elapsed(TimeUnit.MICROSECONDS);
-
         hostEventsSink.record(serviceName, hostname, port, response.code(), micros);
         responseTimer.update(Duration.of(micros, ChronoUnit.MICROS));
 
@@ -74,7 +87,10 @@ final class InstrumentedInterceptor implements Interceptor {
     }
 
     static InstrumentedInterceptor create(
-            ClientMetrics clientMetrics, HostEventsSink hostEventsSink, Class<?> serviceClass) {
-        return new InstrumentedInterceptor(clientMetrics, hostEventsSink, serviceClass.getSimpleName());
+            ClientMetrics clientMetrics,
+            HostEventsSink hostEventsSink,
+            HostLoadTracker hostLoads,
+            Class<?> serviceClass) {
+        return new InstrumentedInterceptor(clientMetrics, hostEventsSink, hostLoads, serviceClass.getSimpleName());
     }
 }
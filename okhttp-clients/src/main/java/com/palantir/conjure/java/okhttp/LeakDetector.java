@@ -21,20 +21,26 @@ import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+/**
+ * Reports resources which are garbage collected while still registered. Registered resources are tracked by identity in
+ * a concurrent set, so that registering and unregistering take constant time and never contend on a shared lock. The
+ * garbage collector hands leaked resources' references to a {@link ReferenceQueue}, which is polled on each
+ * registration, so leaks are reported by the first registration after the collection that found them.
+ */
 final class LeakDetector<T> {
     private static final SafeLogger log = SafeLoggerFactory.get(LeakDetector.class);
 
     private final Class<T> resourceType;
     private final Consumer<Optional<RuntimeException>> subscriber;
-    private final List<LeakDetectingReference<T>> references = new ArrayList<>();
+    private final Set<Object> references = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<T> collected = new ReferenceQueue<>();
 
     LeakDetector(Class<T> resourceType) {
         this(resourceType, _unused -> {});
@@ -53,30 +59,23 @@ final class LeakDetector<T> {
         return Optional.empty();
     }
 
-    synchronized void register(T objectToMonitor, Optional<RuntimeException> stackTrace) {
-        references.add(new LeakDetectingReference<>(objectToMonitor, stackTrace));
-        pruneAndLog();
+    void register(T objectToMonitor, Optional<RuntimeException> stackTrace) {
+        references.add(new LeakDetectingReference<>(objectToMonitor, stackTrace, collected));
+        pollAndLog();
     }
 
-    synchronized void unregister(T objectToNoLongerMonitor) {
-        for (int i = 0; i < references.size(); i++) {
-            if (references.get(i).get() == objectToNoLongerMonitor) {
-                int last = references.size() - 1;
-                Collections.swap(references, i, last);
-                references.remove(last);
-                return;
-            }
-        }
+    void unregister(T objectToNoLongerMonitor) {
+        references.remove(new IdentityKey(objectToNoLongerMonitor));
     }
 
-    private synchronized void pruneAndLog() {
-        Iterator<LeakDetectingReference<T>> iterator = references.iterator();
-        while (iterator.hasNext()) {
-            LeakDetectingReference<T> reference = iterator.next();
-            if (reference.get() == null) {
+    @SuppressWarnings("unchecked")
+    private void pollAndLog() {
+        LeakDetectingReference<T> reference;
+        while ((reference = (LeakDetectingReference<T>) collected.poll()) != null) {
+            // Only references which are still registered were leaked
+            if (references.remove(reference)) {
                 subscriber.accept(reference.stackTrace);
                 logLeak(reference.stackTrace);
-                iterator.remove();
             }
         }
     }
@@ -99,12 +98,51 @@ final class LeakDetector<T> {
         }
     }
 
+    /**
+     * Equal to the {@link IdentityKey} of its referent while that has not been collected, and afterwards only to
+     * itself.
+     */
     private static final class LeakDetectingReference<T> extends WeakReference<T> {
         private final Optional<RuntimeException> stackTrace;
+        private final int identityHashCode;
 
-        LeakDetectingReference(T referent, Optional<RuntimeException> stackTrace) {
-            super(referent);
+        LeakDetectingReference(T referent, Optional<RuntimeException> stackTrace, ReferenceQueue<T> queue) {
+            super(referent, queue);
             this.stackTrace = stackTrace;
+            this.identityHashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            T referent = get();
+            return referent != null && other instanceof IdentityKey && ((IdentityKey) other).referent == referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return identityHashCode;
+        }
+    }
+
+    /** Looks up the reference to a registered object without allocating another weak reference. */
+    private static final class IdentityKey {
+        private final Object referent;
+
+        IdentityKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof LeakDetectingReference && ((LeakDetectingReference<?>) other).get() == referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(referent);
         }
     }
 }
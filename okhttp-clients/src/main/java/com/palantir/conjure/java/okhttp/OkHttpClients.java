@@ -20,16 +20,24 @@ import static com.palantir.logsafe.Preconditions.checkArgument;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.palantir.conjure.java.api.config.service.BasicCredentials;
 import com.palantir.conjure.java.api.config.service.UserAgent;
 import com.palantir.conjure.java.api.config.service.UserAgent.Agent;
 import com.palantir.conjure.java.api.config.service.UserAgents;
+import com.palantir.conjure.java.client.config.AdaptiveConnectionEviction;
 import com.palantir.conjure.java.client.config.CipherSuites;
 import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.client.config.ConcurrencyLimitStrategy;
+import com.palantir.conjure.java.client.config.ConnectionIsolation;
 import com.palantir.conjure.java.client.config.NodeSelectionStrategy;
+import com.palantir.conjure.java.client.config.ResponseCaching;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.logsafe.exceptions.SafeIllegalStateException;
@@ -38,22 +46,36 @@ import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tracing.Tracers;
 import com.palantir.tritium.metrics.MetricRegistries;
 import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import javax.net.ssl.SSLSocketFactory;
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
 import okhttp3.Credentials;
 import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
+import okhttp3.Response;
 import okhttp3.TlsVersion;
 import okhttp3.internal.Util;
 
@@ -66,6 +88,7 @@ public final class OkHttpClients {
     static final int NUM_SCHEDULING_THREADS = 5;
 
     private static final boolean DEFAULT_ENABLE_HTTP2 = false;
+    private static final int DEFAULT_MAX_ERROR_BODY_BYTES = 512 * 1024;
 
     private static final ThreadFactory executionThreads = instrument(
             new ThreadFactoryBuilder()
@@ -106,6 +129,12 @@ public final class OkHttpClients {
             55,
             TimeUnit.SECONDS);
 
+    /**
+     * Response caches of clients with {@link ClientConfiguration#responseCaching response caching}, by directory. An
+     * OkHttp cache must be the only user of its directory, so clients of the same service class share their cache.
+     */
+    private static final ConcurrentMap<Path, Cache> responseCaches = new ConcurrentHashMap<>();
+
     private static DispatcherMetricSet dispatcherMetricSet;
 
     static {
@@ -139,6 +168,21 @@ public final class OkHttpClients {
                             Util.threadFactory("conjure-java-runtime/OkHttp Scheduler", true),
                             "conjure-java-runtime/OkHttp Scheduler"))));
 
+    /**
+     * Executors used instead of the shared platform thread pools by clients which
+     * {@link ClientConfiguration#enableVirtualThreads enable virtual threads}. Empty if the runtime does not support
+     * virtual threads.
+     */
+    private static final Supplier<Optional<VirtualThreadExecutors>> virtualThreadExecutors =
+            Suppliers.memoize(VirtualThreadExecutors::create);
+
+    /**
+     * Connection pools and dispatchers of clients with {@link ClientConfiguration#connectionIsolation isolated
+     * connections}, by service class. Weakly keyed, so that unloading a service class releases its connections.
+     */
+    private static final ConcurrentMap<Class<?>, IsolatedConnections> isolatedConnections =
+            CacheBuilder.newBuilder().weakKeys().<Class<?>, IsolatedConnections>build().asMap();
+
     private OkHttpClients() {}
 
     /**
@@ -180,6 +224,42 @@ public final class OkHttpClients {
                 () -> new ExponentialBackoff(config1.maxNumRetries(), config1.backoffSlotSize()));
     }
 
+    /**
+     * Executes the given call, made by a client {@link #create created} by this class, without blocking a thread until
+     * it completes. Retries happen as they would for {@link Call#execute}, and error responses fail the returned future
+     * with the {@link com.palantir.conjure.java.api.errors.RemoteException} or
+     * {@link com.palantir.conjure.java.api.errors.UnknownRemoteException} which {@link Call#execute} throws. Cancelling
+     * the future cancels the call, including any retry which is in progress or waiting for a concurrency limiter
+     * permit. The caller must close the response.
+     */
+    public static ListenableFuture<Response> executeAsync(Call call) {
+        if (call instanceof RemotingOkHttpCall) {
+            return ((RemotingOkHttpCall) call).executeAsync();
+        }
+        SettableFuture<Response> future = SettableFuture.create();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call _call, IOException exception) {
+                future.setException(exception);
+            }
+
+            @Override
+            public void onResponse(Call _call, Response response) {
+                if (!future.set(response)) {
+                    response.close();
+                }
+            }
+        });
+        future.addListener(
+                () -> {
+                    if (future.isCancelled()) {
+                        call.cancel();
+                    }
+                },
+                MoreExecutors.directExecutor());
+        return future;
+    }
+
     @VisibleForTesting
     static RemotingOkHttpClient withStableUris(
             ClientConfiguration config, HostEventsSink hostEventsSink, Class<?> serviceClass) {
@@ -210,8 +290,15 @@ public final class OkHttpClients {
             boolean reshuffle,
             Supplier<BackoffStrategy> backoffStrategyFunction) {
         boolean enableClientQoS = shouldEnableQos(config.clientQoS());
+        Optional<VirtualThreadExecutors> virtualThreads =
+                config.enableVirtualThreads().orElse(false) ? virtualThreadExecutors.get() : Optional.empty();
         ConcurrencyLimiters concurrencyLimiters = new ConcurrencyLimiters(
-                limitReviver.get(), config.taggedMetricRegistry(), serviceClass, enableClientQoS);
+                virtualThreads.map(executors -> executors.limitReviver).orElseGet(limitReviver),
+                config.taggedMetricRegistry(),
+                serviceClass,
+                enableClientQoS,
+                config.concurrencyLimitStrategy().orElseGet(ConcurrencyLimitStrategy::aimd),
+                config.endpointConcurrencyLimitStrategies());
 
         client.addInterceptor(CatchThrowableInterceptor.INSTANCE);
         client.addInterceptor(SpanTerminatingInterceptor.INSTANCE);
@@ -225,11 +312,15 @@ public final class OkHttpClients {
                     !config.failedUrlCooldown().isZero(),
                     "If nodeSelectionStrategy is ROUND_ROBIN then failedUrlCooldown must be positive");
         }
+        HostLoadTracker hostLoads = config.nodeSelectionStrategy().equals(NodeSelectionStrategy.BALANCED)
+                ? HostLoadTracker.create()
+                : HostLoadTracker.disabled();
         UrlSelectorImpl urlSelector = UrlSelectorImpl.createWithFailedUrlCooldown(
                 randomizeUrlOrder ? UrlSelectorImpl.shuffle(config.uris()) : config.uris(),
                 reshuffle,
                 config.failedUrlCooldown(),
-                Clock.systemUTC());
+                Clock.systemUTC(),
+                hostLoads);
         if (config.meshProxy().isPresent()) {
             // TODO(rfink): Should this go into the call itself?
             client.addInterceptor(new MeshProxyInterceptor(config.meshProxy().get()));
@@ -252,12 +343,29 @@ public final class OkHttpClients {
         }
         ClientMetrics clientMetrics = ClientMetrics.of(config.taggedMetricRegistry());
         client.addInterceptor(DeprecationWarningInterceptor.create(clientMetrics, serviceClass));
+        if (config.responseCaching().isPresent()) {
+            ResponseCaching caching = config.responseCaching().get();
+            client.cache(responseCaches.computeIfAbsent(
+                    caching.directory().resolve(serviceClass.getSimpleName()),
+                    directory -> new Cache(directory.toFile(), caching.maxSizeBytes())));
+            client.addInterceptor(CacheInstrumentingInterceptor.create(clientMetrics, serviceClass));
+            client.addNetworkInterceptor(AuthorizationCacheKeyInterceptor.NETWORK);
+        }
         client.addInterceptor(InstrumentedInterceptor.create(
-                clientMetrics, config.hostEventsSink().orElse(NoOpHostEventsSink.INSTANCE), serviceClass));
+                clientMetrics,
+                config.hostEventsSink().orElse(NoOpHostEventsSink.INSTANCE),
+                hostLoads,
+                serviceClass));
         client.addInterceptor(OkhttpTraceInterceptor.INSTANCE);
         UserAgent agent =
                 config.userAgent().orElseThrow(() -> new SafeIllegalArgumentException("UserAgent is required"));
-        client.addInterceptor(UserAgentInterceptor.of(augmentUserAgent(agent, serviceClass)));
+        UserAgentInterceptor userAgentInterceptor = UserAgentInterceptor.of(augmentUserAgent(agent, serviceClass));
+        client.addInterceptor(userAgentInterceptor);
+        client.addInterceptor(DeadlineHeaderInterceptor.INSTANCE);
+        if (config.responseCaching().isPresent()) {
+            // Must run last, so that the other interceptors see the request's Authorization header
+            client.addInterceptor(AuthorizationCacheKeyInterceptor.APPLICATION);
+        }
 
         // timeouts
         // Note that Feign overrides OkHttp timeouts with the timeouts given in FeignBuilder#Options if given, or
@@ -282,26 +390,104 @@ public final class OkHttpClients {
             client.protocols(ImmutableList.of(Protocol.HTTP_1_1));
         }
 
+        ExecutorService clientExecutionExecutor =
+                virtualThreads.map(executors -> executors.execution).orElse(executionExecutor);
+        ScheduledExecutorService clientSchedulingExecutor =
+                virtualThreads.map(executors -> executors.scheduling).orElseGet(schedulingExecutor);
+        Optional<IsolatedConnections> isolated = config.connectionIsolation()
+                .map(isolation -> isolatedConnections.computeIfAbsent(
+                        serviceClass,
+                        _serviceClass -> new IsolatedConnections(
+                                isolation,
+                                config.adaptiveConnectionEviction(),
+                                clientExecutionExecutor,
+                                clientSchedulingExecutor)));
+
         // increase default connection pool from 5 @ 5 minutes to 100 @ 10 minutes
-        client.connectionPool(connectionPool);
+        ConnectionPool pool = isolated.map(connections -> connections.connectionPool).orElse(connectionPool);
+        client.connectionPool(pool);
+        List<EventListener> eventListeners = new ArrayList<>();
+        if (config.tlsSessionCacheSize().isPresent()) {
+            eventListeners.add(new TlsSessionEventListener(
+                    clientMetrics, serviceClass.getSimpleName(), config.tlsSessionCacheSize().get()));
+        }
+        // Every client of the pool must report its requests to the evictor, whatever its own configuration
+        Optional<AdaptiveConnectionEvictor> evictor = isolated.flatMap(connections -> connections.evictor);
+        evictor.ifPresent(connectionEvictor -> {
+            eventListeners.add(connectionEvictor);
+            config.taggedMetricRegistry()
+                    .addMetrics("connectionPool", serviceClass.getSimpleName(), connectionEvictor);
+        });
+        Http2ConnectionScaler http2Scaler = Http2ConnectionScaler.disabled();
+        if (config.enableHttp2().orElse(DEFAULT_ENABLE_HTTP2) && config.http2ConnectionScaling().isPresent()) {
+            http2Scaler = Http2ConnectionScaler.create(config.http2ConnectionScaling().get());
+            eventListeners.add(http2Scaler);
+            config.taggedMetricRegistry().addMetrics("http2Scaling", serviceClass.getSimpleName(), http2Scaler);
+        }
+        if (!eventListeners.isEmpty()) {
+            client.eventListener(CompositeConnectionEventListener.of(eventListeners));
+        }
 
-        client.dispatcher(dispatcher);
+        Dispatcher sharedDispatcher = virtualThreads.map(executors -> executors.dispatcher).orElse(dispatcher);
+        client.dispatcher(isolated.map(connections -> connections.dispatcher).orElse(sharedDispatcher));
+
+        if (config.warmUpConnectionsPerUri().isPresent()) {
+            warmUp(client, config, urlSelector.getBaseUrls(), userAgentInterceptor);
+        }
 
         // global metrics (addMetrics is idempotent, so this works even when multiple clients are created)
         config.taggedMetricRegistry()
                 .addMetrics("from", DispatcherMetricSet.class.getSimpleName(), dispatcherMetricSet);
+        isolated.ifPresent(connections -> config.taggedMetricRegistry()
+                .addMetrics("serviceClass", serviceClass.getSimpleName(), connections.metrics));
+        virtualThreads.ifPresent(executors -> config.taggedMetricRegistry()
+                .addMetrics("from", VirtualThreadExecutors.METRICS_TAG, executors.metrics));
 
         return new RemotingOkHttpClient(
                 client,
                 backoffStrategyFunction,
                 config.nodeSelectionStrategy(),
                 urlSelector,
-                schedulingExecutor.get(),
-                executionExecutor,
+                clientSchedulingExecutor,
+                clientExecutionExecutor,
                 concurrencyLimiters,
                 config.serverQoS(),
                 config.retryOnTimeout(),
-                config.retryOnSocketException());
+                config.retryOnSocketException(),
+                config.hedging()
+                        .map(policy -> Hedger.create(
+                                policy, clientMetrics, serviceClass.getSimpleName(), clientExecutionExecutor))
+                        .orElseGet(Hedger::disabled),
+                config.retryBudget()
+                        .map(policy -> RetryBudget.create(policy, clientMetrics, serviceClass.getSimpleName()))
+                        .orElseGet(RetryBudget::unlimited),
+                config.requestDeadline(),
+                config.maxErrorBodyBytes().orElse(DEFAULT_MAX_ERROR_BODY_BYTES),
+                http2Scaler,
+                config.requestCoalescing()
+                        .map(policy -> RequestCoalescer.create(
+                                policy, urlSelector.getBaseUrls(), clientMetrics, serviceClass.getSimpleName()))
+                        .orElseGet(RequestCoalescer::disabled));
+    }
+
+    /**
+     * Opens connections in the background using a copy of the fully configured client without its interceptors, which
+     * expect requests to carry the state added by {@link RemotingOkHttpClient}. The mesh proxy interceptor is kept, since
+     * it determines which host the connections are made to, as is the user agent, so that servers can attribute the
+     * warm-up requests to this client. The copy makes plain OkHttp calls, so warm-up requests never take a concurrency
+     * limiter permit, are never retried and do not count towards the retry budget.
+     */
+    private static void warmUp(
+            OkHttpClient.Builder client,
+            ClientConfiguration config,
+            List<HttpUrl> baseUrls,
+            UserAgentInterceptor userAgentInterceptor) {
+        OkHttpClient.Builder warmUpClient = client.build().newBuilder();
+        warmUpClient.interceptors().clear();
+        warmUpClient.networkInterceptors().clear();
+        config.meshProxy().ifPresent(meshProxy -> warmUpClient.addInterceptor(new MeshProxyInterceptor(meshProxy)));
+        warmUpClient.addInterceptor(userAgentInterceptor);
+        ConnectionWarmer.warmUp(warmUpClient.build(), baseUrls, config.warmUpConnectionsPerUri().get());
     }
 
     private static boolean shouldEnableQos(ClientConfiguration.ClientQoS clientQoS) {
@@ -343,6 +529,90 @@ public final class OkHttpClients {
                 ConnectionSpec.CLEARTEXT);
     }
 
+    /**
+     * The connection pool, dispatcher and adaptive evictor dedicated to one service class. The first client created for
+     * a service class determines their sizes, executors and eviction policy; later clients for the same service class
+     * share them.
+     */
+    private static final class IsolatedConnections {
+        private final ConnectionPool connectionPool;
+        private final Dispatcher dispatcher;
+        private final DispatcherMetricSet metrics;
+        private final Optional<AdaptiveConnectionEvictor> evictor;
+
+        private IsolatedConnections(
+                ConnectionIsolation isolation,
+                Optional<AdaptiveConnectionEviction> eviction,
+                ExecutorService executor,
+                ScheduledExecutorService scheduler) {
+            this.connectionPool = new ConnectionPool(
+                    isolation.maxIdleConnections(), isolation.keepAlive().toMillis(), TimeUnit.MILLISECONDS);
+            this.dispatcher = new Dispatcher(executor);
+            this.dispatcher.setMaxRequests(Integer.MAX_VALUE);
+            this.dispatcher.setMaxRequestsPerHost(isolation.maxRequestsPerHost());
+            this.metrics = new DispatcherMetricSet(dispatcher, connectionPool);
+            this.evictor = eviction.map(policy ->
+                    AdaptiveConnectionEvictor.create(connectionPool, policy, isolation.keepAlive(), scheduler));
+        }
+    }
+
+    /**
+     * Counterparts of the shared executors whose threads are all virtual. Dispatcher work and retry continuations run
+     * on a new virtual thread per task, and blocking {@link RemotingOkHttpCall#execute} callers which are themselves
+     * virtual threads park without holding a carrier thread. The schedulers only hand tasks off to the execution
+     * executor, so a single virtual thread each suffices.
+     *
+     * <p>The dispatcher shares the connection pool of the platform thread dispatcher, so its metrics report the same
+     * connection pool, tagged apart from those of {@link #dispatcherMetricSet}.
+     */
+    private static final class VirtualThreadExecutors {
+        private static final String METRICS_TAG = "VirtualThread" + DispatcherMetricSet.class.getSimpleName();
+
+        private final ExecutorService execution;
+        private final Dispatcher dispatcher;
+        private final DispatcherMetricSet metrics;
+        private final ScheduledExecutorService scheduling;
+        private final ScheduledExecutorService limitReviver;
+
+        private VirtualThreadExecutors(
+                ExecutorService execution,
+                ScheduledExecutorService scheduling,
+                ScheduledExecutorService limitReviver) {
+            this.execution = execution;
+            this.scheduling = scheduling;
+            this.limitReviver = limitReviver;
+            this.dispatcher = new Dispatcher(execution);
+            this.dispatcher.setMaxRequests(Integer.MAX_VALUE);
+            this.dispatcher.setMaxRequestsPerHost(256);
+            this.metrics = new DispatcherMetricSet(dispatcher, connectionPool);
+        }
+
+        static Optional<VirtualThreadExecutors> create() {
+            Optional<ThreadFactory> executionThreads = VirtualThreads.factory("remoting-okhttp-virtual-dispatcher");
+            Optional<ThreadFactory> schedulingThreads =
+                    VirtualThreads.factory("conjure-java-runtime/OkHttp virtual Scheduler");
+            Optional<ThreadFactory> reviverThreads =
+                    VirtualThreads.factory("conjure-java-runtime/virtual leaked limit reviver");
+            if (executionThreads.isEmpty() || schedulingThreads.isEmpty() || reviverThreads.isEmpty()) {
+                log.warn("Virtual threads were requested but are not supported by this runtime, "
+                        + "falling back to platform threads");
+                return Optional.empty();
+            }
+            // Never keeps idle threads, so that each task runs on a fresh virtual thread
+            ExecutorService execution = new ThreadPoolExecutor(
+                    0,
+                    Integer.MAX_VALUE,
+                    0,
+                    TimeUnit.SECONDS,
+                    new SynchronousQueue<>(),
+                    instrument(executionThreads.get(), "remoting-okhttp-virtual-dispatcher"));
+            return Optional.of(new VirtualThreadExecutors(
+                    execution,
+                    Tracers.wrap(Executors.newSingleThreadScheduledExecutor(schedulingThreads.get())),
+                    Tracers.wrap(Executors.newSingleThreadScheduledExecutor(reviverThreads.get()))));
+        }
+    }
+
     @SuppressWarnings("deprecation") // Singleton registry for a singleton executor
     private static ThreadFactory instrument(ThreadFactory threadFactory, String name) {
         return MetricRegistries.instrument(SharedTaggedMetricRegistries.getSingleton(), threadFactory, name);
@@ -41,6 +41,10 @@ public final class OkhttpTraceInterceptor implements Interceptor {
         if (attemptSpanTag == null) {
             return chain.proceed(chain.request());
         }
+        if (!attemptSpanTag.observable()) {
+            // the attempt span is still required to propagate the trace to the server
+            return addHeaders.intercept(chain);
+        }
         try {
             return addHeaders.intercept(chain);
         } finally {
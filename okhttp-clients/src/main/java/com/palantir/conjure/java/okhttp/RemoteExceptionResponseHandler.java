@@ -17,7 +17,6 @@
 package com.palantir.conjure.java.okhttp;
 
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.google.common.io.CharStreams;
 import com.palantir.conjure.java.api.errors.RemoteException;
 import com.palantir.conjure.java.api.errors.SerializableError;
 import com.palantir.conjure.java.serialization.ObjectMappers;
@@ -26,9 +25,6 @@ import com.palantir.logsafe.UnsafeArg;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Optional;
@@ -42,41 +38,50 @@ enum RemoteExceptionResponseHandler implements ResponseHandler<RemoteException>
 
     @Override
     public Optional<RemoteException> handle(Response response) {
-        if (response.body() == null
-                || response.body().byteStream() == null
-                || response.isSuccessful()
-                || response.code() == MoreHttpCodes.SWITCHING_PROTOCOLS) {
+        if (response.body() == null || response.body().byteStream() == null || !isSerializableError(response)) {
             return Optional.empty();
         }
 
-        Collection<String> contentTypes = response.headers("Content-Type");
-        if (contentTypes.contains("application/json")
-                && !response.request().method().equals("HEAD")) {
-            final String body;
-            try {
-                body = toString(response.body().byteStream());
-            } catch (IOException e) {
-                log.warn("Failed to read response body", e);
-                return Optional.empty();
-            }
-            try {
-                SerializableError serializableError = MAPPER.readValue(body, SerializableError.class);
-                return Optional.of(new RemoteException(serializableError, response.code()));
-            } catch (Exception e) {
-                log.warn(
-                        "Failed to deserialize JSON, could not deserialize SerializableError",
-                        SafeArg.of("code", response.code()),
-                        UnsafeArg.of("body", body),
-                        e);
-            }
+        final byte[] body;
+        try {
+            body = response.body().bytes();
+        } catch (IOException e) {
+            log.warn("Failed to read response body", e);
+            return Optional.empty();
+        }
+        return parse(response, body);
+    }
+
+    /**
+     * Handles a response whose body has already been read into the given bytes, which are null if the response has no
+     * body. The body of the given response is not read.
+     */
+    Optional<RemoteException> handle(Response response, byte[] body) {
+        if (body == null || !isSerializableError(response)) {
+            return Optional.empty();
         }
+        return parse(response, body);
+    }
 
-        return Optional.empty();
+    private static boolean isSerializableError(Response response) {
+        if (response.isSuccessful() || response.code() == MoreHttpCodes.SWITCHING_PROTOCOLS) {
+            return false;
+        }
+        Collection<String> contentTypes = response.headers("Content-Type");
+        return contentTypes.contains("application/json") && !response.request().method().equals("HEAD");
     }
 
-    private static String toString(InputStream body) throws IOException {
-        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
-            return CharStreams.toString(reader);
+    private static Optional<RemoteException> parse(Response response, byte[] body) {
+        try {
+            SerializableError serializableError = MAPPER.readValue(body, SerializableError.class);
+            return Optional.of(new RemoteException(serializableError, response.code()));
+        } catch (Exception e) {
+            log.warn(
+                    "Failed to deserialize JSON, could not deserialize SerializableError",
+                    SafeArg.of("code", response.code()),
+                    UnsafeArg.of("body", new String(body, StandardCharsets.UTF_8)),
+                    e);
+            return Optional.empty();
         }
     }
 }
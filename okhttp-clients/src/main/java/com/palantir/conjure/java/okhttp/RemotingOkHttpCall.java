@@ -42,7 +42,10 @@ import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -51,6 +54,7 @@ import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.BufferedSource;
 
 /**
  * An OkHttp {@link Call} implementation that handles standard retryable error status such as 308, 429, 503, and
@@ -60,9 +64,9 @@ final class RemotingOkHttpCall extends ForwardingCall {
 
     private static final SafeLogger log = SafeLoggerFactory.get(RemotingOkHttpCall.class);
 
-    private static final ResponseHandler<RemoteException> remoteExceptionHandler =
+    private static final RemoteExceptionResponseHandler remoteExceptionHandler =
             RemoteExceptionResponseHandler.INSTANCE;
-    private static final ResponseHandler<UnknownRemoteException> unknownRemoteExceptionHandler =
+    private static final UnknownRemoteExceptionResponseHandler unknownRemoteExceptionHandler =
             UnknownRemoteExceptionResponseHandler.INSTANCE;
     private static final ResponseHandler<QosException> qosHandler = QosExceptionResponseHandler.INSTANCE;
 
@@ -75,6 +79,9 @@ final class RemotingOkHttpCall extends ForwardingCall {
     private final ClientConfiguration.ServerQoS serverQoS;
     private final ClientConfiguration.RetryOnTimeout retryOnTimeout;
     private final ClientConfiguration.RetryOnSocketException retryOnSocketException;
+    private final Hedger hedger;
+    private final RetryBudget retryBudget;
+    private final RequestCoalescer coalescer;
     // Previous call in the chain if this is a retry request
     private final Optional<Call> previous;
 
@@ -92,7 +99,10 @@ final class RemotingOkHttpCall extends ForwardingCall {
             int maxNumRelocations,
             ClientConfiguration.ServerQoS serverQoS,
             ClientConfiguration.RetryOnTimeout retryOnTimeout,
-            ClientConfiguration.RetryOnSocketException retryOnSocketException) {
+            ClientConfiguration.RetryOnSocketException retryOnSocketException,
+            Hedger hedger,
+            RetryBudget retryBudget,
+            RequestCoalescer coalescer) {
         super(delegate);
         this.previous = previous;
         this.backoffStrategy = backoffStrategy;
@@ -105,6 +115,9 @@ final class RemotingOkHttpCall extends ForwardingCall {
         this.serverQoS = serverQoS;
         this.retryOnTimeout = retryOnTimeout;
         this.retryOnSocketException = retryOnSocketException;
+        this.hedger = hedger;
+        this.retryBudget = retryBudget;
+        this.coalescer = coalescer;
     }
 
     /**
@@ -114,29 +127,7 @@ final class RemotingOkHttpCall extends ForwardingCall {
      */
     @Override
     public Response execute() throws IOException {
-        SettableFuture<Response> future = SettableFuture.create();
-        enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException exception) {
-                if (!future.setException(exception)) {
-                    log.warn(
-                            "Future has already completed",
-                            UnsafeArg.of("requestUrl", call.request().url().toString()),
-                            exception);
-                }
-            }
-
-            @Override
-            public void onResponse(Call call, Response response) {
-                if (!future.set(response)) {
-                    close(response);
-                    log.warn(
-                            "Future has already completed, closing the response",
-                            UnsafeArg.of("requestUrl", call.request().url().toString()));
-                }
-            }
-        });
-
+        SettableFuture<Response> future = enqueueForFuture();
         try {
             // We don't enforce a timeout here because it's not possible to know how long this operation might take.
             // First, it might get queued indefinitely in the Dispatcher, and then it might get retried a (potentially)
@@ -144,7 +135,7 @@ final class RemotingOkHttpCall extends ForwardingCall {
             // OkHttp call times out (, possibly after a number of retries).
             return future.get();
         } catch (InterruptedException e) {
-            getDelegate().cancel();
+            cancel();
             // Regardless of the cancel above, the call may have succeeded or is going to succeed, and we need to make
             // sure the response body is closed correctly in those cases.
             Futures.addCallback(future, ResponseClosingCallback.INSTANCE, MoreExecutors.directExecutor());
@@ -174,6 +165,79 @@ final class RemotingOkHttpCall extends ForwardingCall {
         }
     }
 
+    /**
+     * Executes the call without blocking the calling thread. Error responses fail the returned future with the same
+     * {@link RemoteException} or {@link UnknownRemoteException} which {@link #execute} throws. Cancelling the future
+     * cancels the call, including any retry which is in progress or waiting for a concurrency limiter permit.
+     */
+    ListenableFuture<Response> executeAsync() {
+        SettableFuture<Response> future = enqueueForFuture();
+        future.addListener(
+                () -> {
+                    if (future.isCancelled()) {
+                        cancel();
+                    }
+                },
+                MoreExecutors.directExecutor());
+        // Cancelling the returned future also cancels the one it was derived from
+        return Futures.catchingAsync(
+                future,
+                IOException.class,
+                exception -> Futures.immediateFailedFuture(unwrapRemoteException(exception)),
+                MoreExecutors.directExecutor());
+    }
+
+    private SettableFuture<Response> enqueueForFuture() {
+        SettableFuture<Response> future = SettableFuture.create();
+        enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException exception) {
+                if (!future.setException(exception) && !future.isCancelled()) {
+                    log.warn(
+                            "Future has already completed",
+                            UnsafeArg.of("requestUrl", call.request().url().toString()),
+                            exception);
+                }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!future.set(response)) {
+                    close(response);
+                    if (!future.isCancelled()) {
+                        log.warn(
+                                "Future has already completed, closing the response",
+                                UnsafeArg.of("requestUrl", call.request().url().toString()));
+                    }
+                }
+            }
+        });
+        return future;
+    }
+
+    private static Exception unwrapRemoteException(IOException exception) {
+        if (exception instanceof IoRemoteException) {
+            return ((IoRemoteException) exception).getWrappedException();
+        } else if (exception instanceof IoUnknownRemoteException) {
+            return ((IoUnknownRemoteException) exception).getUnknownRemoteException();
+        }
+        return exception;
+    }
+
+    /**
+     * Reads at most {@code maxBytes} of the given error body, so that a misbehaving server cannot make us buffer
+     * arbitrarily large responses. Longer bodies are truncated, and will usually fail to parse as a SerializableError.
+     */
+    private static byte[] readErrorBody(ResponseBody body, int maxBytes) throws IOException {
+        BufferedSource source = body.source();
+        boolean truncated = source.request(maxBytes + 1L);
+        byte[] bytes = source.readByteArray(Math.min(source.getBuffer().size(), maxBytes));
+        if (truncated) {
+            log.debug("Truncated error response body", SafeArg.of("maxErrorBodyBytes", maxBytes));
+        }
+        return bytes;
+    }
+
     private static Response buildFrom(Response unbufferedResponse, byte[] bodyBytes) {
         return unbufferedResponse
                 .newBuilder()
@@ -194,23 +258,103 @@ final class RemotingOkHttpCall extends ForwardingCall {
 
     @Override
     public void enqueue(Callback callback) {
-        DetachedSpan attemptSpan = request().tag(Tags.AttemptSpan.class).attemptSpan();
-        DetachedSpan concurrencyLimiterSpan = attemptSpan.childDetachedSpan(limiter.spanName());
+        // Retries share the original call's attempt tag, so the deadline is only armed once
+        Callback expiringCallback = previous.isEmpty() ? armDeadline(callback) : callback;
+        // Only the original call is coalesced, not its retries or hedges, which are sent on behalf of the original call
+        if (previous.isEmpty() && coalescer.isEligible(request())) {
+            coalescer.enqueue(this, expiringCallback, this::enqueueSentByCoalescer, executionExecutor);
+        } else {
+            enqueueUncoalesced(expiringCallback);
+        }
+    }
+
+    /**
+     * Expires the call's current attempt once its deadline passes, wherever the attempt is waiting: for the call it
+     * joined, for a concurrency limiter permit, in the dispatcher's queue or on the network. OkHttp's own timeout, set
+     * per attempt in {@link #enqueueInternal}, only starts once the dispatcher runs the attempt.
+     */
+    private Callback armDeadline(Callback callback) {
+        Tags.Deadline deadline = request().tag(Tags.Deadline.class);
+        if (deadline == null) {
+            return callback;
+        }
+        ScheduledFuture<?> expiry = schedulingExecutor.schedule(
+                request().tag(Tags.CurrentAttempt.class)::expire,
+                Math.max(0, deadline.remainingNanos()),
+                TimeUnit.NANOSECONDS);
+        return new Callback() {
+            @Override
+            public void onFailure(Call call, IOException exception) {
+                expiry.cancel(false);
+                callback.onFailure(call, exception);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                expiry.cancel(false);
+                callback.onResponse(call, response);
+            }
+        };
+    }
+
+    /** Sends a coalesced call which did not join another call, which only then counts towards the retry budget. */
+    private void enqueueSentByCoalescer(Callback callback) {
+        retryBudget.recordRequest();
+        enqueueUncoalesced(callback);
+    }
+
+    private void enqueueUncoalesced(Callback callback) {
+        // Only the original call is hedged, not its retries or the hedge itself
+        if (previous.isEmpty() && hedger.isEligible(request())) {
+            enqueueHedged(callback);
+        } else {
+            enqueueWithPermit(callback);
+        }
+    }
+
+    private void enqueueHedged(Callback callback) {
+        hedger.recordRequest();
+        long delayMicros = hedger.hedgeDelayMicros();
+        HedgedCallback hedgedCallback = new HedgedCallback(callback);
+        enqueueWithPermit(hedgedCallback.primary);
+        if (delayMicros >= 0 && urls.getBaseUrls().size() > 1) {
+            hedgedCallback.scheduleHedge(delayMicros);
+        }
+    }
+
+    private void enqueueWithPermit(Callback callback) {
+        Tags.AttemptSpan attempt = request().tag(Tags.AttemptSpan.class);
+        DetachedSpan attemptSpan = attempt.attemptSpan();
+        // Unsampled requests skip the limiter and dispatcher spans entirely, see Tags.isObservable
+        DetachedSpan concurrencyLimiterSpan =
+                attempt.observable() ? attemptSpan.childDetachedSpan(limiter.spanName()) : null;
         ListenableFuture<Limiter.Listener> limiterListener = limiter.acquire();
         request().tag(ConcurrencyLimiterListener.class).setLimiterListener(limiterListener);
+        request().tag(Tags.CurrentAttempt.class).start(getDelegate(), limiterListener);
         Futures.addCallback(
                 limiterListener,
                 new FutureCallback<Limiter.Listener>() {
                     @Override
-                    public void onSuccess(Limiter.Listener _listener) {
-                        concurrencyLimiterSpan.complete();
-                        DetachedSpan dispatcherSpan = attemptSpan.childDetachedSpan("OkHttp: dispatcher");
-                        request().tag(Tags.SettableDispatcherSpan.class).setDispatcherSpan(dispatcherSpan);
+                    public void onSuccess(Limiter.Listener listener) {
+                        if (isCanceled()) {
+                            listener.onIgnore();
+                            failCancelled();
+                            return;
+                        }
+                        if (concurrencyLimiterSpan != null) {
+                            concurrencyLimiterSpan.complete(Tags.LimiterSpanTags.INSTANCE, limiter);
+                            DetachedSpan dispatcherSpan = attemptSpan.childDetachedSpan("OkHttp: dispatcher");
+                            request().tag(Tags.SettableDispatcherSpan.class).setDispatcherSpan(dispatcherSpan);
+                        }
                         enqueueClosingEntireSpan(callback);
                     }
 
                     @Override
                     public void onFailure(Throwable throwable) {
+                        if (limiterListener.isCancelled()) {
+                            failCancelled();
+                            return;
+                        }
                         callback.onFailure(
                                 RemotingOkHttpCall.this,
                                 new SafeIoException(
@@ -218,15 +362,140 @@ final class RemotingOkHttpCall extends ForwardingCall {
                                                 + "we failed when using the concurrency limiter",
                                         throwable));
                     }
+
+                    private void failCancelled() {
+                        // The attempt is never dispatched, so its spans are completed here rather than by interceptors
+                        if (concurrencyLimiterSpan != null) {
+                            concurrencyLimiterSpan.complete();
+                        }
+                        attemptSpan.complete();
+                        request().tag(Tags.EntireSpan.class).get().complete();
+                        callback.onFailure(RemotingOkHttpCall.this, cancellationException(request()));
+                    }
                 },
                 MoreExecutors.directExecutor());
     }
 
+    /**
+     * Relays whichever of the original call and its hedge receives a response first, and cancels the other. A failure
+     * is only relayed once neither call can still succeed.
+     */
+    private final class HedgedCallback {
+        private final Callback delegate;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        /** Number of calls, original and hedge, which have been sent and have not yet failed. */
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+
+        private final Callback primary = new Branch(false);
+
+        private volatile ScheduledFuture<?> scheduledHedge;
+        private volatile Call hedge;
+
+        HedgedCallback(Callback delegate) {
+            this.delegate = delegate;
+        }
+
+        @SuppressWarnings("FutureReturnValueIgnored")
+        void scheduleHedge(long delayMicros) {
+            scheduledHedge = schedulingExecutor.schedule(
+                    () -> executionExecutor.execute(this::sendHedge), delayMicros, TimeUnit.MICROSECONDS);
+        }
+
+        private void sendHedge() {
+            if (completed.get() || isCanceled() || !hedger.tryAcquireBudget()) {
+                return;
+            }
+            Optional<HttpUrl> redirectTo = urls.alternativeTo(request().url());
+            if (redirectTo.isEmpty()) {
+                return;
+            }
+            outstanding.incrementAndGet();
+            Call hedgeCall = client.newHedgeCall(request(), redirectTo.get());
+            hedge = hedgeCall;
+            hedger.markSent();
+            log.debug("Hedging call", UnsafeArg.of("redirectToUrl", redirectTo.get()));
+            hedgeCall.enqueue(new Branch(true));
+            if (completed.get()) {
+                // the original call completed while the hedge was being sent
+                hedgeCall.cancel();
+            }
+        }
+
+        private void cancelOther(boolean isHedge) {
+            if (isHedge) {
+                RemotingOkHttpCall.this.cancel();
+                return;
+            }
+            ScheduledFuture<?> scheduled = scheduledHedge;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            Call hedgeCall = hedge;
+            if (hedgeCall != null) {
+                hedgeCall.cancel();
+            }
+        }
+
+        private final class Branch implements Callback {
+            private final boolean isHedge;
+
+            Branch(boolean isHedge) {
+                this.isHedge = isHedge;
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                if (!completed.compareAndSet(false, true)) {
+                    close(response);
+                    return;
+                }
+                // When the hedge wins, the original call took at least this long, which keeps the estimate honest
+                hedger.recordLatency(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+                if (isHedge) {
+                    hedger.markWon();
+                }
+                cancelOther(isHedge);
+                delegate.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call call, IOException exception) {
+                boolean lastOutstanding = outstanding.decrementAndGet() == 0;
+                if (!isHedge && RemotingOkHttpCall.this.isCanceled() && !completed.get()) {
+                    // cancelled by the caller, so the hedge is not wanted either
+                    cancelOther(false);
+                }
+                if (lastOutstanding && completed.compareAndSet(false, true)) {
+                    delegate.onFailure(call, exception);
+                }
+            }
+        }
+    }
+
+    /** Also cancels the retry of this call which is in progress, if any. */
+    @Override
+    public void cancel() {
+        super.cancel();
+        request().tag(Tags.CurrentAttempt.class).cancel();
+    }
+
     @Override
     public boolean isCanceled() {
         return getDelegate().isCanceled() || previous.map(Call::isCanceled).orElse(Boolean.FALSE);
     }
 
+    /** The exception with which a call fails if it is cancelled while waiting, or if its deadline passes meanwhile. */
+    static IOException cancellationException(Request request) {
+        Tags.Deadline deadline = request.tag(Tags.Deadline.class);
+        if (deadline != null && deadline.isExpired()) {
+            return new SafeIoException(
+                    "Failed to complete the request within its deadline",
+                    UnsafeArg.of("requestUrl", request.url().toString()));
+        }
+        return new SafeIoException("Request is cancelled");
+    }
+
     private void enqueueClosingEntireSpan(Callback callback) {
         enqueueInternal(new Callback() {
             @Override
@@ -250,9 +519,27 @@ final class RemotingOkHttpCall extends ForwardingCall {
     }
 
     private void enqueueInternal(Callback callback) {
+        Tags.Deadline deadline = request().tag(Tags.Deadline.class);
+        if (deadline != null) {
+            // Each attempt may only use the time that remains of the request's deadline. An attempt which runs out of
+            // time fails with a timeout, and is not retried since the deadline has then passed.
+            getDelegate().timeout().timeout(Math.max(1, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+        }
         super.enqueue(new LeakedResponseClosingCallback(new Callback() {
             @Override
             public void onFailure(Call call, IOException exception) {
+                // Checked first, since OkHttp cancels calls which exceed their timeout
+                if (deadline != null && deadline.isExpired()) {
+                    callback.onFailure(
+                            call,
+                            new SafeIoException(
+                                    "Failed to complete the request within its deadline",
+                                    exception,
+                                    UnsafeArg.of(
+                                            "requestUrl", call.request().url().toString())));
+                    return;
+                }
+
                 if (isCanceled()) {
                     callback.onFailure(call, exception);
                     return;
@@ -286,7 +573,7 @@ final class RemotingOkHttpCall extends ForwardingCall {
                     return;
                 }
 
-                retryIfAllowed(callback, call, exception, () -> {
+                retryIfAllowed(callback, call, exception, backoff.get(), () -> {
                     if (log.isInfoEnabled()) {
                         log.info(
                                 "Retrying call after failure",
@@ -322,13 +609,13 @@ final class RemotingOkHttpCall extends ForwardingCall {
                 }
 
                 ResponseBody maybeResponseBody = response.body();
-                // Buffer the response into a byte[] so that multiple handler can safely consume the body.
-                // This consumes and closes the original response body.
-                Supplier<Response> errorResponseSupplier;
+                // Buffer a bounded prefix of the response body once, which all handlers then read from. This consumes
+                // and closes the original response body, so handlers only read the original response's headers.
+                byte[] body;
                 try {
-                    byte[] body = maybeResponseBody == null ? null : maybeResponseBody.bytes();
-                    // so error handlers can read the body without breaking subsequent handlers
-                    errorResponseSupplier = () -> buildFrom(response, body);
+                    body = maybeResponseBody == null
+                            ? null
+                            : readErrorBody(maybeResponseBody, client.maxErrorBodyBytes());
                 } catch (IOException e) {
                     onFailure(call, e);
                     return;
@@ -337,22 +624,21 @@ final class RemotingOkHttpCall extends ForwardingCall {
                 }
 
                 // Handle to handle QoS situations: retry, failover, etc.
-                Optional<QosException> qosError = qosHandler.handle(errorResponseSupplier.get());
+                Optional<QosException> qosError = qosHandler.handle(response);
                 if (qosError.isPresent()) {
-                    qosError.get().accept(createQosVisitor(callback, call, errorResponseSupplier.get()));
+                    qosError.get().accept(createQosVisitor(callback, call, () -> buildFrom(response, body)));
                     return;
                 }
 
                 // Handle responses that correspond to RemoteExceptions / SerializableErrors
-                Optional<RemoteException> httpError = remoteExceptionHandler.handle(errorResponseSupplier.get());
+                Optional<RemoteException> httpError = remoteExceptionHandler.handle(response, body);
                 if (httpError.isPresent()) {
                     callback.onFailure(call, new IoRemoteException(httpError.get()));
                     return;
                 }
 
                 // Catch-all: handle all other responses
-                Optional<UnknownRemoteException> unknownHttpError =
-                        unknownRemoteExceptionHandler.handle(errorResponseSupplier.get());
+                Optional<UnknownRemoteException> unknownHttpError = unknownRemoteExceptionHandler.handle(response, body);
                 if (unknownHttpError.isPresent()) {
                     callback.onFailure(call, new IoUnknownRemoteException(unknownHttpError.get()));
                     return;
@@ -413,14 +699,18 @@ final class RemotingOkHttpCall extends ForwardingCall {
 
     @SuppressWarnings("FutureReturnValueIgnored")
     private void scheduleExecution(Duration backoff, Tags.AttemptSpan attemptSpan, Call nextCall, Callback callback) {
-        DetachedSpan backoffSpan = attemptSpan.attemptSpan().childDetachedSpan("OkHttp: backoff-with-jitter");
+        DetachedSpan backoffSpan = attemptSpan.observable()
+                ? attemptSpan.attemptSpan().childDetachedSpan("OkHttp: backoff-with-jitter")
+                : null;
 
         // TODO(rfink): Investigate whether ignoring the ScheduledFuture is safe, #629.
         schedulingExecutor.schedule(
                 () -> executionExecutor.execute(() -> {
-                    backoffSpan.complete();
+                    if (backoffSpan != null) {
+                        backoffSpan.complete();
+                    }
                     if (isCanceled()) {
-                        callback.onFailure(this, new SafeIoException("Request is cancelled"));
+                        callback.onFailure(this, cancellationException(request()));
                     } else {
                         nextCall.enqueue(callback);
                     }
@@ -429,12 +719,14 @@ final class RemotingOkHttpCall extends ForwardingCall {
                 TimeUnit.MILLISECONDS);
     }
 
-    private QosException.Visitor<Void> createQosVisitor(Callback callback, Call call, Response response) {
+    /** The error response is only built if it is propagated to the caller. */
+    private QosException.Visitor<Void> createQosVisitor(
+            Callback callback, Call call, Supplier<Response> errorResponse) {
         return new QosException.Visitor<Void>() {
             @Override
             public Void visit(QosException.Throttle exception) {
                 if (shouldPropagateQos(serverQoS)) {
-                    propagateResponse(callback, call, response);
+                    propagateResponse(callback, call, errorResponse.get());
                     return null;
                 }
 
@@ -450,8 +742,8 @@ final class RemotingOkHttpCall extends ForwardingCall {
                     return null;
                 }
 
-                retryIfAllowed(callback, call, exception, () -> {
-                    Duration backoff = exception.getRetryAfter().orElseGet(nonAdvertizedBackoff::get);
+                Duration backoff = exception.getRetryAfter().orElseGet(nonAdvertizedBackoff::get);
+                retryIfAllowed(callback, call, exception, backoff, () -> {
                     log.debug(
                             "Rescheduling call after receiving QosException.Throttle",
                             SafeArg.of("backoffMillis", backoff.toMillis()),
@@ -500,7 +792,7 @@ final class RemotingOkHttpCall extends ForwardingCall {
                     return null;
                 }
 
-                retryIfAllowed(callback, call, exception, () -> {
+                retryIfAllowed(callback, call, exception, Duration.ZERO, () -> {
                     log.debug(
                             "Retrying call after receiving QosException.RetryOther",
                             UnsafeArg.of("requestUrl", call.request().url()),
@@ -523,7 +815,7 @@ final class RemotingOkHttpCall extends ForwardingCall {
             @Override
             public Void visit(QosException.Unavailable exception) {
                 if (shouldPropagateQos(serverQoS)) {
-                    propagateResponse(callback, call, response);
+                    propagateResponse(callback, call, errorResponse.get());
                     return null;
                 }
 
@@ -552,7 +844,7 @@ final class RemotingOkHttpCall extends ForwardingCall {
                     return null;
                 }
 
-                retryIfAllowed(callback, call, exception, () -> {
+                retryIfAllowed(callback, call, exception, backoff.get(), () -> {
                     log.debug(
                             "Retrying call after receiving QosException.Unavailable",
                             SafeArg.of("backoffMillis", backoff.get().toMillis()),
@@ -576,9 +868,37 @@ final class RemotingOkHttpCall extends ForwardingCall {
         };
     }
 
-    private static void retryIfAllowed(Callback callback, Call call, Exception exception, Runnable retryScheduler) {
+    /**
+     * Runs the given retry scheduler if the call may be retried after the given backoff. The retry budget is checked
+     * last, so that no part of it is consumed by a retry which is not made.
+     */
+    private void retryIfAllowed(
+            Callback callback, Call call, Exception exception, Duration backoff, Runnable retryScheduler) {
+        Tags.Deadline deadline = call.request().tag(Tags.Deadline.class);
         if (isStreamingBody(call)) {
             callback.onFailure(call, new SafeIoException("Cannot retry streamed HTTP body", exception));
+        } else if (deadline != null && deadline.isExpired()) {
+            callback.onFailure(
+                    call,
+                    new SafeIoException(
+                            "Not retrying call because its deadline has passed",
+                            exception,
+                            UnsafeArg.of("requestUrl", call.request().url().toString())));
+        } else if (deadline != null && deadline.remainingNanos() <= backoff.toNanos()) {
+            callback.onFailure(
+                    call,
+                    new SafeIoException(
+                            "Not retrying call because its deadline would pass during the backoff",
+                            exception,
+                            SafeArg.of("backoffMillis", backoff.toMillis()),
+                            SafeArg.of("remainingMillis", TimeUnit.NANOSECONDS.toMillis(deadline.remainingNanos()))));
+        } else if (!retryBudget.tryAcquire()) {
+            callback.onFailure(
+                    call,
+                    new SafeIoException(
+                            "Not retrying call because the client's retry budget is exhausted",
+                            exception,
+                            UnsafeArg.of("requestUrl", call.request().url().toString())));
         } else {
             retryScheduler.run();
         }
@@ -623,7 +943,10 @@ final class RemotingOkHttpCall extends ForwardingCall {
                 maxNumRelocations,
                 serverQoS,
                 retryOnTimeout,
-                retryOnSocketException);
+                retryOnSocketException,
+                hedger,
+                retryBudget,
+                coalescer);
     }
 
     private Tags.AttemptSpan createNextAttempt() {
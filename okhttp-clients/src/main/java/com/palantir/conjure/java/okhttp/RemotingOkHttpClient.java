@@ -24,6 +24,7 @@ import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tracing.DetachedSpan;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -51,6 +52,14 @@ final class RemotingOkHttpClient extends OkHttpClient {
     private final ClientConfiguration.ServerQoS serverQoS;
     private final ClientConfiguration.RetryOnTimeout retryOnTimeout;
     private final ClientConfiguration.RetryOnSocketException retryOnSocketException;
+    private final Hedger hedger;
+    private final RetryBudget retryBudget;
+    private final Optional<Duration> requestDeadline;
+    private final int maxErrorBodyBytes;
+    private final Http2ConnectionScaler http2Scaler;
+    private final RequestCoalescer coalescer;
+    /** Copies of this client which send requests on further HTTP/2 connections, indexed by connection. */
+    private final OkHttpClient[] http2ConnectionClients;
 
     RemotingOkHttpClient(
             OkHttpClient.Builder builder,
@@ -62,7 +71,13 @@ final class RemotingOkHttpClient extends OkHttpClient {
             ConcurrencyLimiters concurrencyLimiters,
             ClientConfiguration.ServerQoS serverQoS,
             ClientConfiguration.RetryOnTimeout retryOnTimeout,
-            ClientConfiguration.RetryOnSocketException retryOnSocketException) {
+            ClientConfiguration.RetryOnSocketException retryOnSocketException,
+            Hedger hedger,
+            RetryBudget retryBudget,
+            Optional<Duration> requestDeadline,
+            int maxErrorBodyBytes,
+            Http2ConnectionScaler http2Scaler,
+            RequestCoalescer coalescer) {
         super(builder);
         this.backoffStrategyFactory = backoffStrategy;
         this.nodeSelectionStrategy = nodeSelectionStrategy;
@@ -73,12 +88,36 @@ final class RemotingOkHttpClient extends OkHttpClient {
         this.serverQoS = serverQoS;
         this.retryOnTimeout = retryOnTimeout;
         this.retryOnSocketException = retryOnSocketException;
+        this.hedger = hedger;
+        this.retryBudget = retryBudget;
+        this.requestDeadline = requestDeadline;
+        this.maxErrorBodyBytes = maxErrorBodyBytes;
+        this.http2Scaler = http2Scaler;
+        this.coalescer = coalescer;
+        // The copies share this client's connection pool. They only get connections of their own because OkHttp pools
+        // connections by Address, which compares the Dns by equals, and each copy's Dns is a distinct instance.
+        this.http2ConnectionClients = new OkHttpClient[http2Scaler.maxConnectionsPerHost()];
+        for (int connection = 1; connection < http2ConnectionClients.length; connection++) {
+            http2ConnectionClients[connection] = super.newBuilder()
+                    .dns(Http2ConnectionScaler.dns(dns(), connection))
+                    .build();
+        }
     }
 
     @Override
     public RemotingOkHttpCall newCall(Request request) {
+        Request remotingRequest = createNewRequest(request);
+        // Coalesced calls are only recorded once sent, since those which join another call are never sent
+        if (!coalescer.isEligible(remotingRequest)) {
+            retryBudget.recordRequest();
+        }
         return newCallWithMutableState(
-                createNewRequest(request), backoffStrategyFactory.get(), MAX_NUM_RELOCATIONS, Optional.empty());
+                remotingRequest, backoffStrategyFactory.get(), MAX_NUM_RELOCATIONS, Optional.empty());
+    }
+
+    /** The maximum number of bytes of a non-2xx response body which are read to determine the error. */
+    int maxErrorBodyBytes() {
+        return maxErrorBodyBytes;
     }
 
     @Override
@@ -93,7 +132,7 @@ final class RemotingOkHttpClient extends OkHttpClient {
     RemotingOkHttpCall newCallWithMutableState(
             Request request, BackoffStrategy backoffStrategy, int maxNumRelocations, Optional<Call> previousCall) {
         return new RemotingOkHttpCall(
-                super.newCall(request),
+                newDelegateCall(request),
                 previousCall,
                 backoffStrategy,
                 urls,
@@ -104,26 +143,85 @@ final class RemotingOkHttpClient extends OkHttpClient {
                 maxNumRelocations,
                 serverQoS,
                 retryOnTimeout,
-                retryOnSocketException);
+                retryOnSocketException,
+                hedger,
+                retryBudget,
+                coalescer);
+    }
+
+    /**
+     * Creates a hedge of the given request, sent to the given URL. The hedge is traced as a child of the original
+     * request's span and acquires its own concurrency limiter permit, but is never hedged or coalesced itself.
+     */
+    RemotingOkHttpCall newHedgeCall(Request request, HttpUrl url) {
+        Tags.AttemptSpan originalAttempt = request.tag(Tags.AttemptSpan.class);
+        boolean observable = originalAttempt.observable();
+        DetachedSpan hedgeSpan = request.tag(Tags.EntireSpan.class)
+                .get()
+                .childDetachedSpan(observable ? "OkHttp: hedge" : Tags.UNOBSERVED_SPAN_NAME);
+        Request.Builder builder = request.newBuilder()
+                .url(url)
+                .tag(ConcurrencyLimiterListener.class, ConcurrencyLimiterListener.create())
+                .tag(Tags.EntireSpan.class, () -> hedgeSpan)
+                .tag(Tags.AttemptSpan.class, Tags.AttemptSpan.createAttempt(hedgeSpan, 0, observable))
+                .tag(Tags.CurrentAttempt.class, Tags.CurrentAttempt.create());
+        if (observable) {
+            builder.tag(Tags.SettableDispatcherSpan.class, Tags.SettableDispatcherSpan.create())
+                    .tag(Tags.SettableWaitForBodySpan.class, Tags.SettableWaitForBodySpan.create());
+        }
+        Request hedgeRequest = builder.build();
+        return new RemotingOkHttpCall(
+                newDelegateCall(hedgeRequest),
+                Optional.empty(),
+                backoffStrategyFactory.get(),
+                urls,
+                this,
+                schedulingExecutor,
+                executionExecutor,
+                concurrencyLimiters.acquireLimiter(hedgeRequest),
+                MAX_NUM_RELOCATIONS,
+                serverQoS,
+                retryOnTimeout,
+                retryOnSocketException,
+                Hedger.disabled(),
+                retryBudget,
+                RequestCoalescer.disabled());
+    }
+
+    /** Creates the OkHttp call for a single attempt, on the HTTP/2 connection chosen by the {@link #http2Scaler}. */
+    private Call newDelegateCall(Request request) {
+        int connection = http2Scaler.connectionFor(request.url());
+        return connection == 0 ? super.newCall(request) : http2ConnectionClients[connection].newCall(request);
     }
 
     private Request createNewRequest(Request request) {
+        boolean observable = Tags.isObservable();
+        DetachedSpan entireSpan = DetachedSpan.start(observable ? spanName(request) : Tags.UNOBSERVED_SPAN_NAME);
+        Request.Builder builder = request.newBuilder()
+                .url(getNewRequestUrl(request.url()))
+                .tag(ConcurrencyLimiterListener.class, ConcurrencyLimiterListener.create())
+                .tag(Tags.EntireSpan.class, () -> entireSpan)
+                .tag(Tags.AttemptSpan.class, Tags.AttemptSpan.createAttempt(entireSpan, 0, observable))
+                .tag(Tags.CurrentAttempt.class, Tags.CurrentAttempt.create());
+        if (observable) {
+            builder.tag(Tags.SettableDispatcherSpan.class, Tags.SettableDispatcherSpan.create())
+                    .tag(Tags.SettableWaitForBodySpan.class, Tags.SettableWaitForBodySpan.create());
+        }
+        // A deadline set on the request itself takes precedence over the client's
+        Optional.ofNullable(request.tag(RequestDeadline.class))
+                .map(RequestDeadline::timeout)
+                .or(() -> requestDeadline)
+                .ifPresent(timeout -> builder.tag(Tags.Deadline.class, Tags.Deadline.after(timeout)));
+        return builder.build();
+    }
+
+    private static String spanName(Request request) {
         String httpRemotingPath = request.header(OkhttpTraceInterceptor.PATH_TEMPLATE_HEADER);
-        String spanName;
         if (httpRemotingPath != null) {
-            spanName = "OkHttp: " + httpRemotingPath;
+            return "OkHttp: " + httpRemotingPath;
         } else {
-            spanName = request.method();
+            return request.method();
         }
-        DetachedSpan entireSpan = DetachedSpan.start(spanName);
-        return request.newBuilder()
-                .url(getNewRequestUrl(request.url()))
-                .tag(ConcurrencyLimiterListener.class, ConcurrencyLimiterListener.create())
-                .tag(Tags.EntireSpan.class, () -> entireSpan)
-                .tag(Tags.AttemptSpan.class, Tags.AttemptSpan.createAttempt(entireSpan, 0))
-                .tag(Tags.SettableDispatcherSpan.class, Tags.SettableDispatcherSpan.create())
-                .tag(Tags.SettableWaitForBodySpan.class, Tags.SettableWaitForBodySpan.create())
-                .build();
     }
 
     private HttpUrl getNewRequestUrl(HttpUrl requestUrl) {
@@ -134,6 +232,8 @@ final class RemotingOkHttpClient extends OkHttpClient {
         switch (nodeSelectionStrategy) {
             case ROUND_ROBIN:
                 return urls.redirectToNextRoundRobin(current);
+            case BALANCED:
+                return urls.redirectToBalanced(current);
             case PIN_UNTIL_ERROR:
             case PIN_UNTIL_ERROR_WITHOUT_RESHUFFLE:
                 return urls.redirectToCurrent(current);
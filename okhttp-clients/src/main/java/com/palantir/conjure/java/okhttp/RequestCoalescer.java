@@ -0,0 +1,285 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.codahale.metrics.Meter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.conjure.java.client.config.RequestCoalescing;
+import com.palantir.logsafe.exceptions.SafeIoException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Per-client state for {@link RequestCoalescing request coalescing}: the identical GET requests currently in flight.
+ * The first call for a key is sent, and calls made while it is in flight join it rather than being sent, so they
+ * neither acquire a concurrency limiter permit nor occupy a connection.
+ *
+ * <p>Once the sent call receives a response, if any calls joined it, its body is buffered and each joined call receives
+ * its own copy of the response; otherwise the response is passed on as is, so that it may still be streamed. If the
+ * sent call fails, the joined calls fail with the same exception. The joined calls are only sent on their own if the
+ * sent call was cancelled by its caller, so that they do not fail with its cancellation, or if its response body is
+ * too large to buffer. Only calls which are sent count towards the retry budget.
+ *
+ * <p>Cancelling a joined call detaches it from the call it joined, which carries on, and fails it with an
+ * {@link IOException}.
+ */
+final class RequestCoalescer {
+    private static final RequestCoalescer DISABLED =
+            new RequestCoalescer(null, ImmutableList.of(), ImmutableSet.of(), null, null);
+
+    private final RequestCoalescing policy;
+    /** Ordered by decreasing path length, so that the first base URL of a request URL has the longest matching path. */
+    private final List<HttpUrl> baseUrls;
+    private final Set<String> keyHeaders;
+    private final Meter sent;
+    private final Meter joined;
+    private final ConcurrentMap<List<Object>, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private RequestCoalescer(
+            RequestCoalescing policy, List<HttpUrl> baseUrls, Set<String> keyHeaders, Meter sent, Meter joined) {
+        this.policy = policy;
+        this.baseUrls = baseUrls;
+        this.keyHeaders = keyHeaders;
+        this.sent = sent;
+        this.joined = joined;
+    }
+
+    static RequestCoalescer create(
+            RequestCoalescing policy, List<HttpUrl> baseUrls, ClientMetrics metrics, String serviceName) {
+        return new RequestCoalescer(
+                policy,
+                ImmutableList.sortedCopyOf(
+                        Comparator.comparingInt((HttpUrl url) -> url.encodedPath().length())
+                                .reversed(),
+                        baseUrls),
+                ImmutableSet.<String>builder()
+                        .add(HttpHeaders.AUTHORIZATION)
+                        .addAll(policy.keyHeaders())
+                        .build(),
+                metrics.coalescingSent(serviceName),
+                metrics.coalescingJoined(serviceName));
+    }
+
+    static RequestCoalescer disabled() {
+        return DISABLED;
+    }
+
+    /** Only idempotent requests without a body are coalesced, since their response does not depend on the caller. */
+    boolean isEligible(Request request) {
+        return policy != null && "GET".equals(request.method()) && request.body() == null;
+    }
+
+    /**
+     * Joins the given call to an identical call in flight, if there is one, and otherwise sends it using the given
+     * {@code send} function. Joined calls are completed on the given executor.
+     */
+    void enqueue(Call call, Callback callback, Consumer<Callback> send, Executor executor) {
+        List<Object> key = key(call.request());
+        Flight created = new Flight();
+        // Joiners are counted under the map's lock, so the count is final once the sent call has removed its flight
+        Flight flight = inFlight.compute(key, (_key, existing) -> {
+            if (existing == null) {
+                return created;
+            }
+            existing.joiners.incrementAndGet();
+            return existing;
+        });
+        if (flight != created) {
+            joined.mark();
+            // Cancelling the joined call must not cancel the flight, which other calls may be waiting on
+            ListenableFuture<SharedResponse> joinedFlight = Futures.nonCancellationPropagating(flight.response);
+            call.request().tag(Tags.CurrentAttempt.class).await(joinedFlight);
+            Futures.addCallback(joinedFlight, new JoinedCallback(call, callback, send), executor);
+            return;
+        }
+        sent.mark();
+        send.accept(new Callback() {
+            @Override
+            public void onFailure(Call sentCall, IOException exception) {
+                // Later calls must not join a call which has already completed
+                inFlight.remove(key, flight);
+                if (call.request().tag(Tags.CurrentAttempt.class).isCancelled()) {
+                    flight.response.set(null);
+                } else {
+                    flight.response.setException(exception);
+                }
+                callback.onFailure(sentCall, exception);
+            }
+
+            @Override
+            public void onResponse(Call sentCall, Response response) throws IOException {
+                inFlight.remove(key, flight);
+                if (flight.joiners.get() == 0) {
+                    callback.onResponse(sentCall, response);
+                    return;
+                }
+                SharedResponse shared;
+                try {
+                    shared = SharedResponse.buffer(response, policy.maxBufferedBodyBytes());
+                } catch (IOException e) {
+                    response.close();
+                    flight.response.setException(e);
+                    callback.onFailure(sentCall, e);
+                    return;
+                }
+                flight.response.set(shared);
+                callback.onResponse(sentCall, shared == null ? response : shared.copyFor(response.request()));
+            }
+        });
+    }
+
+    /**
+     * Requests are identical if they are for the same path and query relative to the base URL of the node they were
+     * sent to, since the node is chosen per call: with ROUND_ROBIN or BALANCED node selection, identical calls are
+     * usually sent to different nodes.
+     */
+    private List<Object> key(Request request) {
+        List<Object> key = new ArrayList<>(2 + keyHeaders.size());
+        key.add(request.method());
+        key.add(relativeUrl(request.url()));
+        for (String header : keyHeaders) {
+            key.add(request.headers(header));
+        }
+        return key;
+    }
+
+    private Object relativeUrl(HttpUrl url) {
+        for (HttpUrl baseUrl : baseUrls) {
+            if (UrlSelectorImpl.isBaseUrlFor(baseUrl, url)) {
+                String query = url.encodedQuery();
+                String path = url.encodedPath().substring(baseUrl.encodedPath().length());
+                return query == null ? path : path + '?' + query;
+            }
+        }
+        return url;
+    }
+
+    /** An identical call in flight, and the number of calls which joined it. */
+    private static final class Flight {
+        /** Completes with the response to share, or null if the joined calls must be sent on their own. */
+        private final SettableFuture<SharedResponse> response = SettableFuture.create();
+
+        private final AtomicInteger joiners = new AtomicInteger();
+    }
+
+    private static final class JoinedCallback implements FutureCallback<SharedResponse> {
+        private final Call call;
+        private final Callback delegate;
+        private final Consumer<Callback> send;
+
+        JoinedCallback(Call call, Callback delegate, Consumer<Callback> send) {
+            this.call = call;
+            this.delegate = delegate;
+            this.send = send;
+        }
+
+        @Override
+        public void onSuccess(@Nullable SharedResponse shared) {
+            if (shared == null) {
+                send.accept(delegate);
+                return;
+            }
+            // Joined calls are never sent, so their spans are completed here rather than by the interceptors
+            Request request = call.request();
+            request.tag(Tags.AttemptSpan.class).attemptSpan().complete();
+            request.tag(Tags.EntireSpan.class).get().complete();
+            try {
+                delegate.onResponse(call, shared.copyFor(request));
+            } catch (IOException e) {
+                delegate.onFailure(call, e);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            Request request = call.request();
+            request.tag(Tags.AttemptSpan.class).attemptSpan().complete();
+            request.tag(Tags.EntireSpan.class).get().complete();
+            if (throwable instanceof CancellationException) {
+                // Only the joined call's own wait is ever cancelled, by its caller or its deadline
+                delegate.onFailure(call, RemotingOkHttpCall.cancellationException(request));
+            } else if (throwable instanceof IOException) {
+                delegate.onFailure(call, (IOException) throwable);
+            } else {
+                delegate.onFailure(call, new SafeIoException("Failed to complete the coalesced request", throwable));
+            }
+        }
+    }
+
+    /** A successful response whose body has been read into memory, of which each caller receives a copy. */
+    private static final class SharedResponse {
+        private final Response response;
+        @Nullable
+        private final MediaType contentType;
+        @Nullable
+        private final byte[] body;
+
+        private SharedResponse(Response response, @Nullable MediaType contentType, @Nullable byte[] body) {
+            this.response = response;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        /** Returns null, leaving the response unconsumed, if its body is longer than {@code maxBytes}. */
+        @Nullable
+        static SharedResponse buffer(Response response, int maxBytes) throws IOException {
+            ResponseBody responseBody = response.body();
+            if (responseBody == null) {
+                return new SharedResponse(response, null, null);
+            }
+            BufferedSource source = responseBody.source();
+            // Bytes requested but not read remain in the source's buffer, so a long body can still be read in full
+            if (source.request(maxBytes + 1L)) {
+                return null;
+            }
+            byte[] bytes = source.readByteArray();
+            response.close();
+            return new SharedResponse(response, responseBody.contentType(), bytes);
+        }
+
+        Response copyFor(Request request) {
+            return response.newBuilder()
+                    .request(request)
+                    .body(body == null ? null : ResponseBody.create(contentType, body))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+
+/**
+ * Bounds the total time spent on a single request, including all of its retries and the backoffs between them. Attach
+ * it to a request as a tag, {@code request.newBuilder().tag(RequestDeadline.class, RequestDeadline.of(timeout))}, to
+ * override the client's {@link com.palantir.conjure.java.client.config.ClientConfiguration#requestDeadline}.
+ *
+ * <p>The time remaining when each attempt is sent is propagated to the server in the {@value #HEADER} header.
+ */
+public final class RequestDeadline {
+
+    /** Carries the number of milliseconds the client will still wait for a response. */
+    public static final String HEADER = "X-Request-Deadline-Millis";
+
+    private final Duration timeout;
+
+    private RequestDeadline(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public static RequestDeadline of(Duration timeout) {
+        Preconditions.checkArgument(
+                !timeout.isNegative() && !timeout.isZero(),
+                "Request deadline must be positive",
+                SafeArg.of("timeout", timeout));
+        return new RequestDeadline(timeout);
+    }
+
+    public Duration timeout() {
+        return timeout;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestDeadline{timeout=" + timeout + '}';
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.conjure.java.client.config.RetryBudgetPolicy;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-client {@link RetryBudgetPolicy retry budget}: counts requests and retries over a sliding window, and grants a
+ * retry only while retries stay within the configured fraction of requests plus the fixed allowance.
+ *
+ * <p>The window is divided into one-second buckets. Checking and consuming the budget are not a single atomic step,
+ * so concurrent retries may overshoot it slightly, which is harmless.
+ */
+final class RetryBudget {
+    private static final RetryBudget UNLIMITED = new RetryBudget();
+
+    private final Meter granted;
+    private final Meter denied;
+    private final double retryRatio;
+    private final long minRetries;
+    private final Window requests;
+    private final Window retries;
+
+    private RetryBudget() {
+        this.granted = null;
+        this.denied = null;
+        this.retryRatio = 0;
+        this.minRetries = 0;
+        this.requests = null;
+        this.retries = null;
+    }
+
+    @VisibleForTesting
+    RetryBudget(RetryBudgetPolicy policy, ClientMetrics metrics, String serviceName, Clock clock) {
+        this.granted = metrics.retryGranted(serviceName);
+        this.denied = metrics.retryDenied(serviceName);
+        this.retryRatio = policy.retryRatio();
+        int windowSeconds = Math.toIntExact(policy.window().getSeconds());
+        this.minRetries = (long) policy.minRetriesPerSecond() * windowSeconds;
+        this.requests = new Window(windowSeconds, clock);
+        this.retries = new Window(windowSeconds, clock);
+    }
+
+    static RetryBudget create(RetryBudgetPolicy policy, ClientMetrics metrics, String serviceName) {
+        return new RetryBudget(policy, metrics, serviceName, Clock.systemUTC());
+    }
+
+    static RetryBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /** Records a new call, which increases the budget. Retries of that call are not recorded as requests. */
+    void recordRequest() {
+        if (requests != null) {
+            requests.increment();
+        }
+    }
+
+    /** Returns true and consumes part of the budget if a retry is allowed, or false if the budget is exhausted. */
+    boolean tryAcquire() {
+        if (retries == null) {
+            return true;
+        }
+        long allowed = minRetries + (long) (retryRatio * requests.sum());
+        if (retries.sum() >= allowed) {
+            denied.mark();
+            return false;
+        }
+        retries.increment();
+        granted.mark();
+        return true;
+    }
+
+    /**
+     * Counts events over the last {@code size} seconds. Each bucket holds the second it was last used for and its count,
+     * and is reset when reused for a later second.
+     */
+    private static final class Window {
+        private final Clock clock;
+        private final int size;
+        private final AtomicLongArray seconds;
+        private final AtomicLongArray counts;
+
+        Window(int size, Clock clock) {
+            this.clock = clock;
+            this.size = size;
+            this.seconds = new AtomicLongArray(size);
+            this.counts = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                seconds.set(i, Long.MIN_VALUE);
+            }
+        }
+
+        void increment() {
+            long now = currentSecond();
+            int index = (int) Math.floorMod(now, (long) size);
+            long bucketSecond = seconds.get(index);
+            if (bucketSecond != now && seconds.compareAndSet(index, bucketSecond, now)) {
+                // Increments racing with the reset may be lost, which is harmless for an approximate budget
+                counts.set(index, 0);
+            }
+            counts.incrementAndGet(index);
+        }
+
+        long sum() {
+            long now = currentSecond();
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                long bucketSecond = seconds.get(i);
+                if (bucketSecond > now - size && bucketSecond <= now) {
+                    sum += counts.get(i);
+                }
+            }
+            return sum;
+        }
+
+        private long currentSecond() {
+            return clock.millis() / 1000;
+        }
+    }
+}
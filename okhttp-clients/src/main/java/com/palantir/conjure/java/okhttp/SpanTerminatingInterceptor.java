@@ -36,6 +36,13 @@ final class SpanTerminatingInterceptor implements Interceptor {
             return chain.proceed(chain.request());
         }
         DetachedSpan attemptSpan = attemptSpanTag.attemptSpan();
+        if (!attemptSpanTag.observable()) {
+            try {
+                return chain.proceed(chain.request());
+            } finally {
+                attemptSpan.complete();
+            }
+        }
         DetachedSpan dispatcherSpan =
                 chain.request().tag(Tags.SettableDispatcherSpan.class).dispatcherSpan();
 
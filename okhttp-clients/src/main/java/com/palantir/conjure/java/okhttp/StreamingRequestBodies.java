@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.logsafe.exceptions.SafeIoException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.Nullable;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request bodies which are written to the connection as they are sent, rather than materialized in memory first, so
+ * that uploads of any size use a constant amount of memory.
+ *
+ * <p>Calls whose body is {@link RequestBody#isOneShot one-shot} are not retried, since their body cannot be sent
+ * again. Bodies read from a file, or written by a {@link #replayable replayable} writer, can be sent any number of
+ * times, so calls with such bodies are retried as usual.
+ */
+public final class StreamingRequestBodies {
+
+    private StreamingRequestBodies() {}
+
+    /** Writes the contents of a request body to the connection. */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void writeTo(BufferedSink sink) throws IOException;
+    }
+
+    /**
+     * Returns a replayable body which transfers the contents of the given file to the connection, with a known content
+     * length. The file must not change while calls using the body are in progress.
+     */
+    public static RequestBody ofFile(@Nullable MediaType contentType, Path file) {
+        return new FileRequestBody(contentType, file);
+    }
+
+    /**
+     * Returns a one-shot body which is written by the given writer, for example from a stream which can only be read
+     * once. The body is sent using chunked transfer encoding.
+     */
+    public static RequestBody oneShot(@Nullable MediaType contentType, BodyWriter writer) {
+        return new WriterRequestBody(contentType, writer, true);
+    }
+
+    /**
+     * Returns a replayable body which is written by the given writer, which must write the same bytes each time it is
+     * invoked. The body is sent using chunked transfer encoding.
+     */
+    public static RequestBody replayable(@Nullable MediaType contentType, BodyWriter writer) {
+        return new WriterRequestBody(contentType, writer, false);
+    }
+
+    private static final class FileRequestBody extends RequestBody {
+        @Nullable
+        private final MediaType contentType;
+
+        private final Path file;
+
+        private FileRequestBody(@Nullable MediaType contentType, Path file) {
+            this.contentType = contentType;
+            this.file = file;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return Files.size(file);
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    // The sink's buffer is flushed to the socket as its segments fill up, so memory use stays constant
+                    long transferred = channel.transferTo(position, size - position, sink);
+                    if (transferred <= 0) {
+                        // The length has already been sent, so the request cannot be completed
+                        throw new SafeIoException(
+                                "File changed while it was being sent",
+                                SafeArg.of("expectedBytes", size),
+                                SafeArg.of("sentBytes", position),
+                                UnsafeArg.of("file", file));
+                    }
+                    position += transferred;
+                }
+            }
+        }
+    }
+
+    private static final class WriterRequestBody extends RequestBody {
+        @Nullable
+        private final MediaType contentType;
+
+        private final BodyWriter writer;
+        private final boolean oneShot;
+
+        private WriterRequestBody(@Nullable MediaType contentType, BodyWriter writer, boolean oneShot) {
+            this.contentType = contentType;
+            this.writer = writer;
+            this.oneShot = oneShot;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            writer.writeTo(sink);
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return oneShot;
+        }
+    }
+}
@@ -17,7 +17,12 @@
 package com.palantir.conjure.java.okhttp;
 
 import com.palantir.tracing.DetachedSpan;
+import com.palantir.tracing.TagTranslator;
+import com.palantir.tracing.Tracer;
+import java.time.Duration;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
+import okhttp3.Call;
 import org.immutables.value.Value;
 
 /**
@@ -26,9 +31,25 @@ import org.immutables.value.Value;
  *
  * <p>The 'SettableX' pattern is necessary because we need to store a span, but don't actually want to start it just
  * yet, so these containers contain null initially and are populated later on.
+ *
+ * <p>Requests made from within a trace which is not sampled only carry the {@link EntireSpan} and {@link AttemptSpan},
+ * which are needed to propagate the trace to the server. All other spans and their containers are skipped, see
+ * {@link AttemptSpan#observable}.
  */
 final class Tags {
 
+    /**
+     * Returns false if the calling thread belongs to a trace which is known not to be sampled, in which case no span
+     * started on behalf of a request can ever be observed. If there is no trace yet, a new one will be started by
+     * {@link DetachedSpan#start} and may be sampled, so we must assume it is observable.
+     */
+    static boolean isObservable() {
+        return !Tracer.hasTraceId() || Tracer.isTraceObservable();
+    }
+
+    static final String UNOBSERVED_SPAN_NAME = "OkHttp: request";
+    static final String UNOBSERVED_ATTEMPT_SPAN_NAME = "OkHttp: attempt";
+
     interface EntireSpan extends Supplier<DetachedSpan> {}
 
     @Value.Immutable
@@ -41,15 +62,23 @@ final class Tags {
 
         DetachedSpan attemptSpan();
 
-        static AttemptSpan createAttempt(DetachedSpan entireSpan, int attemptNumber) {
+        /** Whether child spans of {@link #attemptSpan} should be created, see {@link Tags#isObservable}. */
+        @Value.Default
+        default boolean observable() {
+            return true;
+        }
+
+        static AttemptSpan createAttempt(DetachedSpan entireSpan, int attemptNumber, boolean observable) {
             return ImmutableAttemptSpan.builder()
                     .attemptNumber(attemptNumber)
-                    .attemptSpan(entireSpan.childDetachedSpan("OkHttp: attempt " + attemptNumber))
+                    .attemptSpan(entireSpan.childDetachedSpan(
+                            observable ? "OkHttp: attempt " + attemptNumber : UNOBSERVED_ATTEMPT_SPAN_NAME))
+                    .observable(observable)
                     .build();
         }
 
         default AttemptSpan nextAttempt(DetachedSpan entireSpan) {
-            return createAttempt(entireSpan, attemptNumber() + 1);
+            return createAttempt(entireSpan, attemptNumber() + 1, observable());
         }
     }
 
@@ -78,5 +107,123 @@ final class Tags {
         }
     }
 
+    /**
+     * Attaches the state of a {@link ConcurrencyLimiters.ConcurrencyLimiter} to the span covering the wait for a
+     * permit. Tracing only invokes the translator for observable spans, so unsampled requests never read or format
+     * these values.
+     */
+    enum LimiterSpanTags implements TagTranslator<ConcurrencyLimiters.ConcurrencyLimiter> {
+        INSTANCE;
+
+        @Override
+        public <T> void translate(TagAdapter<T> adapter, T target, ConcurrencyLimiters.ConcurrencyLimiter limiter) {
+            adapter.tag(target, "limit", Integer.toString(limiter.limit()));
+            adapter.tag(target, "inflight", Integer.toString(limiter.inflight()));
+        }
+
+        @Override
+        public boolean isEmpty(ConcurrencyLimiters.ConcurrencyLimiter limiter) {
+            return limiter == ConcurrencyLimiters.NoOpConcurrencyLimiter.INSTANCE;
+        }
+    }
+
+    /**
+     * The {@link System#nanoTime} by which the request, including all of its retries and backoffs, must complete. Set
+     * once when the request is created and carried over to its retries and hedges.
+     */
+    static final class Deadline {
+        private final long deadlineNanos;
+
+        private Deadline(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        static Deadline after(Duration timeout) {
+            return new Deadline(System.nanoTime() + timeout.toNanos());
+        }
+
+        long remainingNanos() {
+            return deadlineNanos - System.nanoTime();
+        }
+
+        boolean isExpired() {
+            return remainingNanos() <= 0;
+        }
+    }
+
+    /**
+     * The attempt in progress on behalf of a call, which is shared by the call and its retries so that cancelling the
+     * call also cancels whichever retry is in progress, and the concurrency limiter permit it is waiting for. The call's
+     * deadline expires the attempt in the same way.
+     */
+    static final class CurrentAttempt {
+        private volatile boolean cancelled;
+        private volatile boolean expired;
+        private volatile Call call;
+        private volatile Future<?> permit;
+
+        private CurrentAttempt() {}
+
+        static CurrentAttempt create() {
+            return new CurrentAttempt();
+        }
+
+        /** Records an attempt which is waiting for its permit, cancelling it right away if the call was cancelled. */
+        void start(Call attempt, Future<?> attemptPermit) {
+            // Written first, so that a non-null call is always accompanied by its permit, or a later one
+            permit = attemptPermit;
+            call = attempt;
+            if (cancelled || expired) {
+                cancel(attempt, attemptPermit);
+            }
+        }
+
+        /**
+         * Records a future which the call waits on before its first attempt, such as the coalesced call it joined,
+         * cancelling it right away if the call was cancelled.
+         */
+        void await(Future<?> pending) {
+            permit = pending;
+            if (cancelled || expired) {
+                pending.cancel(false);
+            }
+        }
+
+        /** Returns true if the call was cancelled by its caller. */
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        void cancel() {
+            cancelled = true;
+            cancelCurrent();
+        }
+
+        /**
+         * Cancels the attempt in progress, and any later one, once the call's {@link Deadline} has passed. Unlike
+         * {@link #cancel}, this does not count as the call being cancelled by its caller.
+         */
+        void expire() {
+            expired = true;
+            cancelCurrent();
+        }
+
+        private void cancelCurrent() {
+            Call attempt = call;
+            Future<?> pending = permit;
+            if (attempt != null) {
+                cancel(attempt, pending);
+            } else if (pending != null) {
+                pending.cancel(false);
+            }
+        }
+
+        private static void cancel(Call attempt, Future<?> attemptPermit) {
+            // Cancelled permits are released as soon as they are granted
+            attemptPermit.cancel(false);
+            attempt.cancel();
+        }
+    }
+
     private Tags() {}
 }
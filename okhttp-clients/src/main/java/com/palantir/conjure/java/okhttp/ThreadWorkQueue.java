@@ -16,11 +16,8 @@
 
 package com.palantir.conjure.java.okhttp;
 
-import java.util.ArrayDeque;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -31,29 +28,107 @@ import javax.annotation.concurrent.NotThreadSafe;
  *
  * <p>Here, we hand out permits in a per-thread fifo, globally round robin fashion, so a thread which makes many
  * requests will see its requests fairly prioritized behind other threads.
+ *
+ * <p>All state is held in arrays which only grow, so adding and removing elements neither boxes thread ids nor
+ * allocates once the queue has reached its working size:
+ *
+ * <ul>
+ *   <li>elements are linked into one list per thread through {@link #elements} and {@link #nextElement},
+ *   <li>each thread with queued elements occupies a slot, found by thread id in an open addressing table,
+ *   <li>and the slots are served round robin from the {@link #ring}.
+ * </ul>
  */
 @NotThreadSafe
 final class ThreadWorkQueue<T> {
-    private final Map<Long, Queue<T>> queuedRequests = new LinkedHashMap<>();
+    private static final int NONE = -1;
+    private static final int INITIAL_ELEMENTS = 16;
+    private static final int INITIAL_THREADS = 8;
+
+    /** Element nodes, unused nodes are linked from {@link #freeElement}. */
+    private Object[] elements = new Object[INITIAL_ELEMENTS];
+
+    private int[] nextElement = new int[INITIAL_ELEMENTS];
+    private int freeElement = NONE;
+
+    /** Per-thread slots, holding the thread's id and the first and last of its queued elements. */
+    private long[] threadIds = new long[INITIAL_THREADS];
+
+    private int[] firstElement = new int[INITIAL_THREADS];
+    private int[] lastElement = new int[INITIAL_THREADS];
+    private int[] freeThreads = new int[INITIAL_THREADS];
+    private int freeThreadCount = 0;
+
+    /** Slots of threads with queued elements, in the order in which they will be served. */
+    private int[] ring = new int[INITIAL_THREADS];
+
+    private int ringHead = 0;
+    private int activeThreads = 0;
+
+    /** Maps thread ids to their slot plus one, using linear probing, so that zero marks an empty bucket. */
+    private long[] tableKeys = new long[INITIAL_THREADS * 2];
+
+    private int[] tableSlots = new int[INITIAL_THREADS * 2];
+
     private int size = 0;
 
+    ThreadWorkQueue() {
+        linkFreeElements(0, INITIAL_ELEMENTS);
+        for (int slot = INITIAL_THREADS - 1; slot >= 0; slot--) {
+            freeThreads[freeThreadCount++] = slot;
+        }
+    }
+
     boolean isEmpty() {
-        return queuedRequests.isEmpty();
+        return size == 0;
     }
 
     void add(T element) {
-        long threadId = Thread.currentThread().getId();
-        queue(threadId).add(element);
+        add(Thread.currentThread().getId(), element);
+    }
+
+    /** Adds an element on behalf of the given thread, for elements which were submitted on a different thread. */
+    void add(long threadId, T element) {
+        int slot = slotFor(threadId);
+        if (freeElement == NONE) {
+            growElements();
+        }
+        int node = freeElement;
+        freeElement = nextElement[node];
+        elements[node] = element;
+        nextElement[node] = NONE;
+        if (firstElement[slot] == NONE) {
+            firstElement[slot] = node;
+        } else {
+            nextElement[lastElement[slot]] = node;
+        }
+        lastElement[slot] = node;
         size++;
     }
 
+    @SuppressWarnings("unchecked")
     T remove() {
-        Map.Entry<Long, Queue<T>> workQueue = nextTask();
-        T result = workQueue.getValue().remove();
-        if (!workQueue.getValue().isEmpty()) {
-            queuedRequests.put(workQueue.getKey(), workQueue.getValue());
+        if (size == 0) {
+            throw new NoSuchElementException();
         }
+        int slot = ring[ringHead];
+        ringHead = (ringHead + 1) & (ring.length - 1);
+        activeThreads--;
+
+        int node = firstElement[slot];
+        T result = (T) elements[node];
+        elements[node] = null;
+        firstElement[slot] = nextElement[node];
+        nextElement[node] = freeElement;
+        freeElement = node;
         size--;
+
+        if (firstElement[slot] == NONE) {
+            // The thread has no more queued elements, and goes to the back of the ring once it adds more.
+            unmap(threadIds[slot]);
+            freeThreads[freeThreadCount++] = slot;
+        } else {
+            enqueueSlot(slot);
+        }
         return result;
     }
 
@@ -61,14 +136,109 @@ final class ThreadWorkQueue<T> {
         return size;
     }
 
-    private Map.Entry<Long, Queue<T>> nextTask() {
-        Iterator<Map.Entry<Long, Queue<T>>> iterator = queuedRequests.entrySet().iterator();
-        Map.Entry<Long, Queue<T>> result = iterator.next();
-        iterator.remove();
-        return result;
+    /** Returns the slot of the given thread, allocating one at the back of the ring if it has no queued elements. */
+    private int slotFor(long threadId) {
+        int mask = tableKeys.length - 1;
+        int bucket = bucket(threadId, mask);
+        while (tableSlots[bucket] != 0) {
+            if (tableKeys[bucket] == threadId) {
+                return tableSlots[bucket] - 1;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        if (freeThreadCount == 0) {
+            growThreads();
+            mask = tableKeys.length - 1;
+            bucket = bucket(threadId, mask);
+            while (tableSlots[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+        }
+        int slot = freeThreads[--freeThreadCount];
+        threadIds[slot] = threadId;
+        firstElement[slot] = NONE;
+        tableKeys[bucket] = threadId;
+        tableSlots[bucket] = slot + 1;
+        enqueueSlot(slot);
+        return slot;
+    }
+
+    private void enqueueSlot(int slot) {
+        ring[(ringHead + activeThreads) & (ring.length - 1)] = slot;
+        activeThreads++;
+    }
+
+    /** Removes the given thread id from the table, shifting back any entries which probed past it. */
+    private void unmap(long threadId) {
+        int mask = tableKeys.length - 1;
+        int hole = bucket(threadId, mask);
+        while (tableKeys[hole] != threadId || tableSlots[hole] == 0) {
+            hole = (hole + 1) & mask;
+        }
+        int bucket = hole;
+        while (true) {
+            bucket = (bucket + 1) & mask;
+            if (tableSlots[bucket] == 0) {
+                break;
+            }
+            int ideal = bucket(tableKeys[bucket], mask);
+            // The entry may only move back if the hole lies between its ideal bucket and its current bucket
+            if (((bucket - ideal) & mask) >= ((bucket - hole) & mask)) {
+                tableKeys[hole] = tableKeys[bucket];
+                tableSlots[hole] = tableSlots[bucket];
+                hole = bucket;
+            }
+        }
+        tableSlots[hole] = 0;
+    }
+
+    private void growElements() {
+        int capacity = elements.length;
+        elements = Arrays.copyOf(elements, capacity * 2);
+        nextElement = Arrays.copyOf(nextElement, capacity * 2);
+        linkFreeElements(capacity, capacity * 2);
+    }
+
+    private void linkFreeElements(int from, int to) {
+        for (int node = to - 1; node >= from; node--) {
+            nextElement[node] = freeElement;
+            freeElement = node;
+        }
+    }
+
+    /** Only called once every slot is in use, so that all slots are in the ring. */
+    private void growThreads() {
+        int capacity = threadIds.length;
+        int[] newRing = new int[capacity * 2];
+        for (int i = 0; i < activeThreads; i++) {
+            newRing[i] = ring[(ringHead + i) & (capacity - 1)];
+        }
+        ring = newRing;
+        ringHead = 0;
+        threadIds = Arrays.copyOf(threadIds, capacity * 2);
+        firstElement = Arrays.copyOf(firstElement, capacity * 2);
+        lastElement = Arrays.copyOf(lastElement, capacity * 2);
+        freeThreads = new int[capacity * 2];
+        for (int slot = capacity * 2 - 1; slot >= capacity; slot--) {
+            freeThreads[freeThreadCount++] = slot;
+        }
+
+        tableKeys = new long[capacity * 4];
+        tableSlots = new int[capacity * 4];
+        int mask = tableKeys.length - 1;
+        for (int slot = 0; slot < capacity; slot++) {
+            int bucket = bucket(threadIds[slot], mask);
+            while (tableSlots[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            tableKeys[bucket] = threadIds[slot];
+            tableSlots[bucket] = slot + 1;
+        }
     }
 
-    private Queue<T> queue(long id) {
-        return queuedRequests.computeIfAbsent(id, _key -> new ArrayDeque<>(2));
+    private static int bucket(long threadId, int mask) {
+        // Thread ids are sequential, so spread them before masking
+        long hash = threadId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
     }
 }
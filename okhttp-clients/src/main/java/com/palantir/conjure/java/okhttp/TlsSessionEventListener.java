@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.codahale.metrics.Meter;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+
+/**
+ * Sizes the client session cache, and records whether each TLS handshake resumed a cached session. A
+ * handshake is considered resumed if its session was created before the handshake started, which holds for the TLS 1.2
+ * sessions used by these clients.
+ *
+ * <p>OkHttp's {@link Handshake} does not expose the session, so the start of each handshake is recorded against its
+ * call and the session is read from the socket when the call acquires the new connection.
+ */
+final class TlsSessionEventListener extends EventListener {
+    private final Meter newSessions;
+    private final Meter resumedSessions;
+    private final int sessionCacheSize;
+    private final ConcurrentMap<Call, Long> handshakeStartMillis = new ConcurrentHashMap<>();
+
+    TlsSessionEventListener(ClientMetrics metrics, String serviceName, int sessionCacheSize) {
+        this.newSessions = metrics.tlsHandshake()
+                .session("new")
+                .serviceName(serviceName)
+                .build();
+        this.resumedSessions = metrics.tlsHandshake()
+                .session("resumed")
+                .serviceName(serviceName)
+                .build();
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        handshakeStartMillis.put(call, System.currentTimeMillis());
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        Long startMillis = handshakeStartMillis.remove(call);
+        Socket socket = connection.socket();
+        if (startMillis == null || !(socket instanceof SSLSocket)) {
+            // a pooled connection, or one without TLS
+            return;
+        }
+        SSLSession session = ((SSLSocket) socket).getSession();
+        if (session.getCreationTime() < startMillis) {
+            resumedSessions.mark();
+        } else {
+            newSessions.mark();
+        }
+        SSLSessionContext context = session.getSessionContext();
+        if (context != null && context.getSessionCacheSize() != sessionCacheSize) {
+            context.setSessionCacheSize(sessionCacheSize);
+        }
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        handshakeStartMillis.remove(call);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException _ioe) {
+        handshakeStartMillis.remove(call);
+    }
+}
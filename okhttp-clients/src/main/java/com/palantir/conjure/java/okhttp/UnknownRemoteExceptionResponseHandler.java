@@ -50,6 +50,18 @@ enum UnknownRemoteExceptionResponseHandler implements ResponseHandler<UnknownRem
         return Optional.of(new UnknownRemoteException(response.code(), body));
     }
 
+    /**
+     * Handles a response whose body has already been read into the given bytes, which are null if the response has no
+     * body. The body of the given response is not read.
+     */
+    Optional<UnknownRemoteException> handle(Response response, byte[] body) {
+        if (response.isSuccessful() || response.code() == MoreHttpCodes.SWITCHING_PROTOCOLS) {
+            return Optional.empty();
+        }
+        return Optional.of(new UnknownRemoteException(
+                response.code(), body != null ? new String(body, StandardCharsets.UTF_8) : "<empty>"));
+    }
+
     private static String toString(InputStream body) throws IOException {
         try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
             return CharStreams.toString(reader);
@@ -40,6 +40,16 @@ public interface UrlSelector {
      */
     Optional<HttpUrl> redirectToNext(HttpUrl requestUrl);
 
+    /**
+     * Returns the given URL redirected to a {@link #getBaseUrls baseURL} other than the one it currently uses, for
+     * sending a duplicate of a request to another node. Unlike the {@code redirectTo} methods, this does not change the
+     * "current" URL of this selector. Returns {@link Optional#empty} if there is no healthy alternative; the default
+     * implementation never offers one.
+     */
+    default Optional<HttpUrl> alternativeTo(HttpUrl _requestUrl) {
+        return Optional.empty();
+    }
+
     /** Similar to {@link #redirectTo}, but redirects the given URL to the current {@link #getBaseUrls baseURL}. */
     Optional<HttpUrl> redirectToCurrent(HttpUrl requestUrl);
 
@@ -49,6 +59,15 @@ public interface UrlSelector {
      */
     Optional<HttpUrl> redirectToNextRoundRobin(HttpUrl requestUrl);
 
+    /**
+     * Similar to {@link #redirectTo}, but redirects the given URL to the least loaded of two randomly chosen
+     * {@link #getBaseUrls baseURLs}. Implementations which do not track load fall back to
+     * {@link #redirectToNextRoundRobin}.
+     */
+    default Optional<HttpUrl> redirectToBalanced(HttpUrl requestUrl) {
+        return redirectToNextRoundRobin(requestUrl);
+    }
+
     /**
      * Returns the base URLs that this UrlSelector matches against. Note that implementations should parse web socket
      * (ws:// and ws:///) URLs as http (http:// and https:// respectively), in a similar to how
@@ -17,8 +17,8 @@
 package com.palantir.conjure.java.okhttp;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.UnsafeArg;
@@ -28,39 +28,50 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import okhttp3.HttpUrl;
 
 final class UrlSelectorImpl implements UrlSelector {
 
     private static final Duration RANDOMIZE = Duration.ofMinutes(10);
 
-    private final Supplier<List<HttpUrl>> baseUrls;
+    /** Base URLs grouped by host, each group ordered by decreasing path length for longest-prefix matching. */
+    private final Map<String, BaseUrl[]> baseUrlsByHost;
+
+    private final Supplier<Ordering> baseUrls;
     private final AtomicReference<HttpUrl> lastBaseUrl;
     private final Map<HttpUrl, Instant> failedUrls;
     private final boolean useFailedUrlCache;
     private final Clock clock;
     private final Duration failedUrlCooldown;
+    private final HostLoadTracker hostLoads;
 
     private UrlSelectorImpl(
-            ImmutableList<HttpUrl> baseUrls, boolean reshuffle, Duration failedUrlCooldown, Clock clock) {
+            ImmutableList<HttpUrl> baseUrls,
+            boolean reshuffle,
+            Duration failedUrlCooldown,
+            Clock clock,
+            HostLoadTracker hostLoads) {
         Preconditions.checkArgument(!baseUrls.isEmpty(), "Must specify at least one URL");
         Preconditions.checkArgument(!failedUrlCooldown.isNegative(), "Cache expiration must be non-negative");
+        this.baseUrlsByHost = indexByHost(baseUrls);
         if (reshuffle) {
             // Add jitter to avoid mass node reassignment when multiple nodes of a client are restarted
             Duration jitter = Duration.ofSeconds(ThreadLocalRandom.current().nextLong(-30, 30));
-            this.baseUrls = Suppliers.memoizeWithExpiration(
-                    () -> shuffle(baseUrls), RANDOMIZE.plus(jitter).toMillis(), TimeUnit.MILLISECONDS);
+            this.baseUrls = new ReshufflingOrdering(baseUrls, RANDOMIZE.plus(jitter));
         } else {
             // deterministic for testing only
-            this.baseUrls = () -> baseUrls;
+            Ordering ordering = new Ordering(baseUrls, baseUrls, Long.MAX_VALUE);
+            this.baseUrls = () -> ordering;
         }
 
         // Assuming that baseUrls is already randomized, start with the first one.
@@ -70,6 +81,7 @@ final class UrlSelectorImpl implements UrlSelector {
         this.failedUrlCooldown = failedUrlCooldown;
         this.failedUrls = new ConcurrentHashMap<>(baseUrls.size());
         this.useFailedUrlCache = !failedUrlCooldown.isNegative() && !failedUrlCooldown.isZero();
+        this.hostLoads = hostLoads;
     }
 
     /**
@@ -80,6 +92,19 @@ final class UrlSelectorImpl implements UrlSelector {
      */
     static UrlSelectorImpl createWithFailedUrlCooldown(
             Collection<String> baseUrls, boolean reshuffle, Duration failedUrlCooldown, Clock clock) {
+        return createWithFailedUrlCooldown(baseUrls, reshuffle, failedUrlCooldown, clock, HostLoadTracker.disabled());
+    }
+
+    /**
+     * As {@link #createWithFailedUrlCooldown(Collection, boolean, Duration, Clock)}, additionally scoring URLs by the
+     * load recorded in the given {@link HostLoadTracker} for {@link #redirectToBalanced}.
+     */
+    static UrlSelectorImpl createWithFailedUrlCooldown(
+            Collection<String> baseUrls,
+            boolean reshuffle,
+            Duration failedUrlCooldown,
+            Clock clock,
+            HostLoadTracker hostLoads) {
         ImmutableSet.Builder<HttpUrl> canonicalUrls = ImmutableSet.builder(); // ImmutableSet maintains insert order
         baseUrls.forEach(url -> {
             HttpUrl httpUrl = HttpUrl.parse(switchWsToHttp(url));
@@ -91,7 +116,8 @@ final class UrlSelectorImpl implements UrlSelector {
                     UnsafeArg.of("url", url));
             canonicalUrls.add(canonicalUrl);
         });
-        return new UrlSelectorImpl(ImmutableList.copyOf(canonicalUrls.build()), reshuffle, failedUrlCooldown, clock);
+        return new UrlSelectorImpl(
+                ImmutableList.copyOf(canonicalUrls.build()), reshuffle, failedUrlCooldown, clock, hostLoads);
     }
 
     @VisibleForTesting
@@ -99,6 +125,20 @@ final class UrlSelectorImpl implements UrlSelector {
         return createWithFailedUrlCooldown(baseUrls, reshuffle, Duration.ZERO, Clock.systemUTC());
     }
 
+    private static Map<String, BaseUrl[]> indexByHost(ImmutableList<HttpUrl> baseUrls) {
+        Map<String, List<BaseUrl>> byHost = new HashMap<>();
+        for (int id = 0; id < baseUrls.size(); id++) {
+            HttpUrl url = baseUrls.get(id);
+            byHost.computeIfAbsent(url.host(), _host -> new ArrayList<>()).add(new BaseUrl(url, id));
+        }
+        ImmutableMap.Builder<String, BaseUrl[]> result = ImmutableMap.builderWithExpectedSize(byHost.size());
+        byHost.forEach((host, urls) -> {
+            urls.sort(Comparator.comparingInt((BaseUrl url) -> url.path.length()).reversed());
+            result.put(host, urls.toArray(new BaseUrl[0]));
+        });
+        return result.buildOrThrow();
+    }
+
     static <T> List<T> shuffle(List<T> list) {
         List<T> shuffledList = new ArrayList<>(list);
         Collections.shuffle(shuffledList);
@@ -122,8 +162,8 @@ final class UrlSelectorImpl implements UrlSelector {
      */
     @Override
     public Optional<HttpUrl> redirectTo(HttpUrl requestUrl, String redirectUrl) {
-        return baseUrlFor(HttpUrl.parse(redirectUrl), baseUrls.get())
-                .flatMap(baseUrl -> redirectTo(requestUrl, baseUrl));
+        BaseUrl baseUrl = baseUrlFor(HttpUrl.parse(redirectUrl));
+        return baseUrl == null ? Optional.empty() : redirectTo(requestUrl, baseUrl.url);
     }
 
     /**
@@ -136,7 +176,11 @@ final class UrlSelectorImpl implements UrlSelector {
      */
     private Optional<HttpUrl> redirectTo(HttpUrl requestUrl, HttpUrl redirectBaseUrl) {
         lastBaseUrl.set(redirectBaseUrl);
+        return rewrite(requestUrl, redirectBaseUrl);
+    }
 
+    /** As {@link #redirectTo(HttpUrl, HttpUrl)}, but leaves {@link #lastBaseUrl} unchanged. */
+    private static Optional<HttpUrl> rewrite(HttpUrl requestUrl, HttpUrl redirectBaseUrl) {
         if (!isPathPrefixFor(redirectBaseUrl, requestUrl)) {
             // The requested redirectBaseUrl has a path that is not compatible with
             // the path of the request URL
@@ -157,10 +201,12 @@ final class UrlSelectorImpl implements UrlSelector {
 
     @Override
     public Optional<HttpUrl> redirectToNext(HttpUrl requestUrl) {
-        List<HttpUrl> httpUrls = baseUrls.get();
+        Ordering ordering = baseUrls.get();
+        List<HttpUrl> httpUrls = ordering.urls;
 
         // If possible, determine the index of the request URL (so we can be sure to redirect to a different URL)
-        int lastIndex = indexFor(requestUrl, httpUrls).orElseGet(() -> indexForLastBaseUrl(httpUrls));
+        int requestIndex = indexFor(requestUrl, ordering);
+        int lastIndex = requestIndex >= 0 ? requestIndex : indexForLastBaseUrl(ordering);
 
         int nextIndex = increment(lastIndex, httpUrls);
 
@@ -168,11 +214,33 @@ final class UrlSelectorImpl implements UrlSelector {
         return redirectTo(requestUrl, next);
     }
 
+    /**
+     * Picks the first base URL after the one the request URL is using that is not cooling down, without updating
+     * {@link #lastBaseUrl} or refreshing the cooldown of a previously failed URL, so that sending a hedge neither moves
+     * the pinned node nor counts as a retry of a failed one.
+     */
+    @Override
+    public Optional<HttpUrl> alternativeTo(HttpUrl requestUrl) {
+        Ordering ordering = baseUrls.get();
+        List<HttpUrl> httpUrls = ordering.urls;
+
+        int requestIndex = indexFor(requestUrl, ordering);
+        int lastIndex = requestIndex >= 0 ? requestIndex : indexForLastBaseUrl(ordering);
+        for (int i = 1; i < httpUrls.size(); i++) {
+            HttpUrl candidate = httpUrls.get((lastIndex + i) % httpUrls.size());
+            if (!isCoolingDown(candidate)) {
+                return rewrite(requestUrl, candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
     @Override
     public Optional<HttpUrl> redirectToCurrent(HttpUrl requestUrl) {
-        List<HttpUrl> httpUrls = baseUrls.get();
+        Ordering ordering = baseUrls.get();
+        List<HttpUrl> httpUrls = ordering.urls;
 
-        int startIndex = indexForLastBaseUrl(httpUrls);
+        int startIndex = indexForLastBaseUrl(ordering);
 
         HttpUrl next = getNextHealthy(startIndex, httpUrls).orElseGet(() -> {
             // Revert to round robin behaviour if _all_ nodes have been marked as unhealthy
@@ -184,10 +252,11 @@ final class UrlSelectorImpl implements UrlSelector {
 
     @Override
     public Optional<HttpUrl> redirectToNextRoundRobin(HttpUrl requestUrl) {
-        List<HttpUrl> httpUrls = baseUrls.get();
+        Ordering ordering = baseUrls.get();
+        List<HttpUrl> httpUrls = ordering.urls;
 
         // Ignore whatever base URL the request URL might match to, use the last base URL instead
-        int lastIndex = indexForLastBaseUrl(httpUrls);
+        int lastIndex = indexForLastBaseUrl(ordering);
 
         int nextIndex = increment(lastIndex, httpUrls);
 
@@ -195,17 +264,70 @@ final class UrlSelectorImpl implements UrlSelector {
         return redirectTo(requestUrl, next);
     }
 
+    /**
+     * Picks two distinct base URLs at random and redirects to the one with the lower {@link HostLoadTracker.HostLoad
+     * score}, ignoring any URL whose failure cooldown has not yet elapsed. Choosing the better of two random nodes
+     * rather than the best of all nodes avoids every client herding onto the same node, while still steering load away
+     * from slow ones.
+     */
+    @Override
+    public Optional<HttpUrl> redirectToBalanced(HttpUrl requestUrl) {
+        List<HttpUrl> httpUrls = baseUrls.get().urls;
+        if (httpUrls.size() == 1) {
+            return redirectToCurrent(requestUrl);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int firstIndex = random.nextInt(httpUrls.size());
+        int secondIndex = (firstIndex + 1 + random.nextInt(httpUrls.size() - 1)) % httpUrls.size();
+        HttpUrl first = httpUrls.get(firstIndex);
+        HttpUrl second = httpUrls.get(secondIndex);
+        boolean firstAvailable = !isCoolingDown(first);
+        boolean secondAvailable = !isCoolingDown(second);
+
+        HttpUrl next;
+        if (firstAvailable && secondAvailable) {
+            next = hostLoads.forUrl(first).score() <= hostLoads.forUrl(second).score() ? first : second;
+        } else if (firstAvailable) {
+            next = first;
+        } else if (secondAvailable) {
+            next = second;
+        } else {
+            // Both candidates are cooling down, fall back to the next healthy node, if any
+            return redirectTo(
+                    requestUrl,
+                    getNextHealthy(increment(secondIndex, httpUrls), httpUrls).orElse(first));
+        }
+
+        if (failedUrls.containsKey(next)) {
+            // the cooldown has elapsed: use the failed URL once and refresh, as in getNextHealthy
+            markBaseUrlAsFailed(next);
+        }
+        return redirectTo(requestUrl, next);
+    }
+
+    private boolean isCoolingDown(HttpUrl baseUrl) {
+        Instant cooldownFinished = failedUrls.get(baseUrl);
+        return cooldownFinished != null && clock.instant().isBefore(cooldownFinished);
+    }
+
     @Override
     public void markAsSucceeded(HttpUrl succeededUrl) {
         if (useFailedUrlCache) {
-            baseUrlFor(succeededUrl, baseUrls.get()).ifPresent(failedUrls::remove);
+            BaseUrl baseUrl = baseUrlFor(succeededUrl);
+            if (baseUrl != null) {
+                failedUrls.remove(baseUrl.url);
+            }
         }
     }
 
     @Override
     public void markAsFailed(HttpUrl failedUrl) {
         if (useFailedUrlCache) {
-            baseUrlFor(failedUrl, baseUrls.get()).ifPresent(this::markBaseUrlAsFailed);
+            BaseUrl baseUrl = baseUrlFor(failedUrl);
+            if (baseUrl != null) {
+                markBaseUrlAsFailed(baseUrl.url);
+            }
         }
     }
 
@@ -213,9 +335,10 @@ final class UrlSelectorImpl implements UrlSelector {
         failedUrls.put(key, clock.instant().plus(this.failedUrlCooldown));
     }
 
-    private int indexForLastBaseUrl(List<HttpUrl> httpUrls) {
+    private int indexForLastBaseUrl(Ordering ordering) {
         // Fallback to index 0 if last base URL is no longer present in base URLs
-        return indexFor(lastBaseUrl.get(), httpUrls).orElse(0);
+        int index = indexFor(lastBaseUrl.get(), ordering);
+        return index >= 0 ? index : 0;
     }
 
     /**
@@ -247,18 +370,35 @@ final class UrlSelectorImpl implements UrlSelector {
         return Optional.empty();
     }
 
-    private static Optional<HttpUrl> baseUrlFor(HttpUrl url, List<HttpUrl> httpUrls) {
-        return indexFor(url, httpUrls).map(httpUrls::get);
-    }
-
-    private static Optional<Integer> indexFor(HttpUrl url, List<HttpUrl> httpUrls) {
-        HttpUrl canonicalUrl = canonicalize(url);
-        for (int i = 0; i < httpUrls.size(); ++i) {
-            if (isBaseUrlFor(httpUrls.get(i), canonicalUrl)) {
-                return Optional.of(i);
+    /**
+     * Returns the base URL with the longest path which is a prefix of the path of the given URL and has the same scheme,
+     * host and port, or null if there is none. Runs on every request, so avoids allocating: in particular
+     * {@link HttpUrl#encodedPath} computes a substring, so paths are compared in place within the full URL string.
+     */
+    @Nullable
+    private BaseUrl baseUrlFor(HttpUrl url) {
+        BaseUrl[] candidates = baseUrlsByHost.get(url.host());
+        if (candidates == null) {
+            return null;
+        }
+        String fullUrl = url.toString();
+        int pathStart = fullUrl.indexOf('/', url.scheme().length() + "://".length());
+        for (BaseUrl candidate : candidates) {
+            if (candidate.port == url.port()
+                    && candidate.scheme.equals(url.scheme())
+                    && pathStart >= 0
+                    // base paths never contain '?' or '#', so cannot match past the end of the path
+                    && fullUrl.regionMatches(pathStart, candidate.path, 0, candidate.path.length())) {
+                return candidate;
             }
         }
-        return Optional.empty();
+        return null;
+    }
+
+    /** Returns the index of the base URL for the given URL within the given ordering, or -1 if there is none. */
+    private int indexFor(HttpUrl url, Ordering ordering) {
+        BaseUrl baseUrl = baseUrlFor(url);
+        return baseUrl == null ? -1 : ordering.positions[baseUrl.id];
     }
 
     private static int increment(int index, List<HttpUrl> urls) {
@@ -294,6 +434,74 @@ final class UrlSelectorImpl implements UrlSelector {
 
     @Override
     public List<HttpUrl> getBaseUrls() {
-        return baseUrls.get();
+        return baseUrls.get().urls;
+    }
+
+    private static final class BaseUrl {
+        private final HttpUrl url;
+        /** Index of this URL in the originally configured list, see {@link Ordering#positions}. */
+        private final int id;
+
+        private final String scheme;
+        private final int port;
+        private final String path;
+
+        BaseUrl(HttpUrl url, int id) {
+            this.url = url;
+            this.id = id;
+            this.scheme = url.scheme();
+            this.port = url.port();
+            this.path = url.encodedPath();
+        }
+    }
+
+    /** An order of the base URLs, which is reshuffled periodically unless the client is deterministic. */
+    private static final class Ordering {
+        private final List<HttpUrl> urls;
+        /** The index within {@link #urls} of each base URL, by {@link BaseUrl#id}. */
+        private final int[] positions;
+
+        private final long expiresAtNanos;
+
+        Ordering(List<HttpUrl> configuredUrls, List<HttpUrl> urls, long expiresAtNanos) {
+            this.urls = urls;
+            this.positions = new int[configuredUrls.size()];
+            for (int id = 0; id < configuredUrls.size(); id++) {
+                positions[id] = urls.indexOf(configuredUrls.get(id));
+            }
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Equivalent to {@link com.google.common.base.Suppliers#memoizeWithExpiration}, but lock-free: the current
+     * ordering is read from a volatile field on every request, and only replaced when it has expired. If several
+     * threads observe the expiry at once, each may shuffle but only one result wins.
+     */
+    private static final class ReshufflingOrdering implements Supplier<Ordering> {
+        private final ImmutableList<HttpUrl> configuredUrls;
+        private final long intervalNanos;
+        private final AtomicReference<Ordering> current;
+
+        ReshufflingOrdering(ImmutableList<HttpUrl> configuredUrls, Duration interval) {
+            this.configuredUrls = configuredUrls;
+            this.intervalNanos = interval.toNanos();
+            this.current = new AtomicReference<>(shuffled(System.nanoTime()));
+        }
+
+        @Override
+        public Ordering get() {
+            Ordering ordering = current.get();
+            long now = System.nanoTime();
+            if (now - ordering.expiresAtNanos < 0) {
+                return ordering;
+            }
+            Ordering reshuffled = shuffled(now);
+            return current.compareAndSet(ordering, reshuffled) ? reshuffled : current.get();
+        }
+
+        private Ordering shuffled(long now) {
+            return new Ordering(configuredUrls, shuffle(configuredUrls), now + intervalNanos);
+        }
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual thread factories on JDK 21 and later. This library targets an older JDK, so {@code Thread.ofVirtual}
+ * is looked up reflectively; on older runtimes {@link #factory} returns empty and callers fall back to platform
+ * threads.
+ */
+final class VirtualThreads {
+    private static final SafeLogger log = SafeLoggerFactory.get(VirtualThreads.class);
+
+    private static final Optional<Method> OF_VIRTUAL = lookupOfVirtual();
+
+    private VirtualThreads() {}
+
+    static boolean isSupported() {
+        return OF_VIRTUAL.isPresent();
+    }
+
+    /**
+     * Returns a factory for virtual threads named {@code <prefix>-<n>} which log uncaught exceptions, or empty if this
+     * runtime does not support virtual threads.
+     */
+    static Optional<ThreadFactory> factory(String prefix) {
+        if (OF_VIRTUAL.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Object builder = OF_VIRTUAL.get().invoke(null);
+            Class<?> builderClass = OF_VIRTUAL.get().getReturnType();
+            builder = builderClass
+                    .getMethod("name", String.class, long.class)
+                    .invoke(builder, prefix + "-", 0L);
+            Thread.UncaughtExceptionHandler handler = (_thread, uncaughtException) -> log.error(
+                    "An exception was uncaught in a virtual thread",
+                    SafeArg.of("prefix", prefix),
+                    uncaughtException);
+            builder = builderClass
+                    .getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class)
+                    .invoke(builder, handler);
+            return Optional.of(
+                    (ThreadFactory) builderClass.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Failed to create a virtual thread factory", SafeArg.of("prefix", prefix), e);
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Method> lookupOfVirtual() {
+        try {
+            return Optional.of(Thread.class.getMethod("ofVirtual"));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+}
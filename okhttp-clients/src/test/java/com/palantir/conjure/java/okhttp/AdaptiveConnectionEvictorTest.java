@@ -0,0 +1,166 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+import com.palantir.conjure.java.client.config.AdaptiveConnectionEviction;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Address;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.Route;
+import org.junit.jupiter.api.Test;
+
+public final class AdaptiveConnectionEvictorTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final ConnectionPool pool = mock(ConnectionPool.class);
+    private final Call call = mock(Call.class);
+    private double fileDescriptorUsage = 0;
+
+    @Test
+    public void testIdleConnectionsAreEvictedAfterMultipleOfRequestGap() {
+        AdaptiveConnectionEvictor evictor = evictor(AdaptiveConnectionEviction.builder()
+                .minKeepAlive(Duration.ZERO)
+                .build());
+        Connection connection = connection("http://foo:8080");
+
+        // one request a second
+        for (int i = 0; i < 5; i++) {
+            evictor.connectionAcquired(call, connection);
+            evictor.connectionReleased(call, connection);
+            advance(Duration.ofSeconds(1));
+        }
+        advance(Duration.ofSeconds(2));
+        evictor.sweep();
+        assertThat(connection.socket().isClosed()).isFalse();
+
+        advance(Duration.ofSeconds(1));
+        evictor.sweep();
+        assertThat(connection.socket().isClosed()).isTrue();
+    }
+
+    @Test
+    public void testKeepAliveIsAtLeastMinimum() {
+        AdaptiveConnectionEvictor evictor = evictor(AdaptiveConnectionEviction.builder()
+                .minKeepAlive(Duration.ofSeconds(10))
+                .build());
+        Connection connection = connection("http://foo:8080");
+        evictor.connectionAcquired(call, connection);
+        evictor.connectionReleased(call, connection);
+        evictor.connectionAcquired(call, connection);
+        evictor.connectionReleased(call, connection);
+
+        advance(Duration.ofSeconds(9));
+        evictor.sweep();
+        assertThat(connection.socket().isClosed()).isFalse();
+
+        advance(Duration.ofSeconds(1));
+        evictor.sweep();
+        assertThat(connection.socket().isClosed()).isTrue();
+    }
+
+    @Test
+    public void testConnectionsInUseAreNotEvicted() {
+        AdaptiveConnectionEvictor evictor = evictor(AdaptiveConnectionEviction.builder()
+                .minKeepAlive(Duration.ZERO)
+                .maxIdleConnectionsPerHost(0)
+                .build());
+        Connection connection = connection("http://foo:8080");
+        // two calls sharing one connection, as with HTTP/2
+        evictor.connectionAcquired(call, connection);
+        evictor.connectionAcquired(call, connection);
+        evictor.connectionReleased(call, connection);
+
+        advance(Duration.ofMinutes(5));
+        evictor.sweep();
+        assertThat(connection.socket().isClosed()).isFalse();
+
+        evictor.connectionReleased(call, connection);
+        evictor.sweep();
+        assertThat(connection.socket().isClosed()).isTrue();
+    }
+
+    @Test
+    public void testIdleConnectionsPerHostAreLimited() {
+        AdaptiveConnectionEvictor evictor = evictor(AdaptiveConnectionEviction.builder()
+                .maxIdleConnectionsPerHost(1)
+                .build());
+        Connection older = connection("http://foo:8080");
+        Connection newer = connection("http://foo:8080");
+        Connection otherHost = connection("http://bar:8080");
+        evictor.connectionAcquired(call, older);
+        evictor.connectionAcquired(call, newer);
+        evictor.connectionAcquired(call, otherHost);
+        evictor.connectionReleased(call, older);
+        advance(Duration.ofMillis(1));
+        evictor.connectionReleased(call, newer);
+        evictor.connectionReleased(call, otherHost);
+
+        evictor.sweep();
+        assertThat(older.socket().isClosed()).isTrue();
+        assertThat(newer.socket().isClosed()).isFalse();
+        assertThat(otherHost.socket().isClosed()).isFalse();
+    }
+
+    @Test
+    public void testAllIdleConnectionsAreEvictedUnderFileDescriptorPressure() {
+        AdaptiveConnectionEvictor evictor = evictor(AdaptiveConnectionEviction.defaults());
+        evictor.sweep();
+        verify(pool, never()).evictAll();
+
+        fileDescriptorUsage = 0.95;
+        evictor.sweep();
+        verify(pool).evictAll();
+    }
+
+    private AdaptiveConnectionEvictor evictor(AdaptiveConnectionEviction policy) {
+        return new AdaptiveConnectionEvictor(pool, policy, Duration.ofSeconds(55), ticker, () -> fileDescriptorUsage);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static Connection connection(String url) {
+        Address address = mock(Address.class);
+        when(address.url()).thenReturn(HttpUrl.get(url));
+        Route route = mock(Route.class);
+        when(route.address()).thenReturn(address);
+        Connection connection = mock(Connection.class);
+        when(connection.route()).thenReturn(route);
+        Socket socket = new Socket();
+        when(connection.socket()).thenReturn(socket);
+        return connection;
+    }
+}
@@ -18,6 +18,8 @@ package com.palantir.conjure.java.okhttp;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -31,6 +33,7 @@ import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
 import okio.BufferedSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -127,11 +130,24 @@ public final class ConcurrencyLimitingInterceptorTest {
     }
 
     @Test
-    public void proxyHandlesExceptions() throws IOException {
+    public void releasesOnceWhenExhaustedBeforeClose() throws IOException {
+        String data = "data";
+        ResponseBody body = ResponseBody.create(MediaType.parse("application/json"), data);
+        when(chain.proceed(request)).thenReturn(response.newBuilder().body(body).build());
+        Response wrappedResponse = interceptor.intercept(chain);
+        BufferedSource source = wrappedResponse.body().source();
+        assertThat(source.readUtf8()).isEqualTo(data);
+        verify(listener).onSuccess();
+        source.close();
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void wrapperHandlesExceptions() throws IOException {
         ResponseBody body = ResponseBody.create(MediaType.parse("application/json"), -1, mockSource);
         when(chain.proceed(request)).thenReturn(response.newBuilder().body(body).build());
         IOException exception = new IOException();
-        when(mockSource.readByteArray()).thenThrow(exception);
+        when(mockSource.read(any(Buffer.class), anyLong())).thenThrow(exception);
         Response erroneousResponse = interceptor.intercept(chain);
         assertThatThrownBy(() -> erroneousResponse.body().source().readByteArray())
                 .isEqualTo(exception);
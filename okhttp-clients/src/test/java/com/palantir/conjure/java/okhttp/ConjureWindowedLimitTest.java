@@ -0,0 +1,85 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import com.netflix.concurrency.limits.Limit;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public final class ConjureWindowedLimitTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final Limit delegate = mock(Limit.class);
+    private final ConjureWindowedLimit limit = new ConjureWindowedLimit(delegate);
+
+    @Test
+    public void testReportsWindowOnceEnoughSamplesAreSeen() {
+        // The first window ends immediately, but needs more than 10 samples
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(0, RTT, i, false);
+        }
+        verify(delegate, never()).onSample(anyLong(), anyLong(), anyInt(), anyBoolean());
+
+        limit.onSample(0, 3 * RTT, 20, false);
+        // Average of ten samples of RTT and one of 3 * RTT, plus one
+        verify(delegate).onSample(0, (13 * RTT) / 11 + 1, 20, false);
+
+        // The next window ends one second after the end of the sample which rolled the window
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(0, RTT, 1, false);
+        }
+        limit.onSample(WINDOW, 4 * RTT, 1, false);
+        verify(delegate).onSample(WINDOW, (24 * RTT) / 21 + 1, 1, false);
+        verifyNoMoreInteractions(delegate);
+    }
+
+    @Test
+    public void testReportsWindowImmediatelyOnDrop() {
+        for (int i = 0; i < 11; i++) {
+            limit.onSample(0, RTT, 1, false);
+        }
+        verify(delegate).onSample(0, RTT + 1, 1, false);
+
+        // The window has not ended, but a drop rolls it regardless of the number of samples
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(0, RTT, 1, false);
+        }
+        limit.onSample(0, RTT, 5, true);
+        verify(delegate).onSample(0, RTT + 1, 5, true);
+
+        limit.onSample(RTT, RTT, 7, true);
+        // A window with only a dropped sample has an average rtt of zero
+        verify(delegate).onSample(RTT, 1, 7, true);
+    }
+
+    @Test
+    public void testIgnoresSamplesBelowRttThreshold() {
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(0, 1, 1, true);
+        }
+        verifyNoMoreInteractions(delegate);
+    }
+}
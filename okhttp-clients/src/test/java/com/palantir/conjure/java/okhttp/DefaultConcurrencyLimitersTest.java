@@ -18,20 +18,30 @@ package com.palantir.conjure.java.okhttp;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MoreCollectors;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.concurrency.limits.Limit;
 import com.netflix.concurrency.limits.Limiter;
 import com.netflix.concurrency.limits.limit.AIMDLimit;
+import com.palantir.conjure.java.client.config.ConcurrencyLimitStrategy;
 import com.palantir.conjure.java.okhttp.ConcurrencyLimiters.ConcurrencyLimiter;
+import com.palantir.tracing.TagTranslator;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
@@ -100,6 +110,171 @@ public final class DefaultConcurrencyLimitersTest {
         assertThat(toBeCompleted).isDone();
     }
 
+    @Test
+    public void testConcurrentAcquireAndRelease() throws InterruptedException {
+        ConcurrencyLimiter limiter = limiters.acquireLimiterInternal(KEY);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        Futures.getUnchecked(limiter.acquire()).onSuccess();
+                    }
+                }));
+            }
+            futures.forEach(Futures::getUnchecked);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(limiter.acquire()).isDone();
+    }
+
+    @Test
+    public void testEndpointStrategyOverridesDefault() {
+        ConcurrencyLimiters configured = new ConcurrencyLimiters(
+                Executors.newSingleThreadScheduledExecutor(),
+                new DefaultTaggedMetricRegistry(),
+                TIMEOUT,
+                DefaultConcurrencyLimitersTest.class,
+                true,
+                ConcurrencyLimitStrategy.vegas(),
+                ImmutableMap.of("GET /users/{userId}", ConcurrencyLimitStrategy.fixed(2)));
+        ConcurrencyLimiters.Key overridden = ImmutableKey.builder()
+                .hostname("host")
+                .method("GET")
+                .pathTemplate("/users/{userId}")
+                .build();
+        ConcurrencyLimiters.Key other = ImmutableKey.builder()
+                .hostname("host")
+                .method("POST")
+                .pathTemplate("/users/{userId}")
+                .build();
+
+        assertThat(configured.strategyFor(overridden)).isEqualTo(ConcurrencyLimitStrategy.fixed(2));
+        assertThat(configured.strategyFor(other)).isEqualTo(ConcurrencyLimitStrategy.vegas());
+        assertThat(configured.strategyFor(KEY)).isEqualTo(ConcurrencyLimitStrategy.vegas());
+
+        ConcurrencyLimiter limiter = configured.acquireLimiterInternal(overridden);
+        assertThat(limiter.acquire()).isDone();
+        assertThat(limiter.acquire()).isDone();
+        assertThat(limiter.acquire()).isNotDone();
+    }
+
+    @Test
+    public void testResetGrantsQueuedPermitsInSeveralPasses() {
+        int limit = 3 * ConcurrencyLimiters.MAX_PERMITS_PER_DRAIN;
+        ConcurrencyLimiters configured = new ConcurrencyLimiters(
+                Executors.newSingleThreadScheduledExecutor(),
+                new DefaultTaggedMetricRegistry(),
+                TIMEOUT,
+                DefaultConcurrencyLimitersTest.class,
+                true,
+                ConcurrencyLimitStrategy.fixed(limit),
+                ImmutableMap.of());
+        ConcurrencyLimiter limiter = configured.acquireLimiterInternal(KEY);
+        List<ListenableFuture<Limiter.Listener>> waiting = new ArrayList<>();
+        for (int i = 0; i < 2 * limit; i++) {
+            ListenableFuture<Limiter.Listener> future = limiter.acquire();
+            if (!future.isDone()) {
+                waiting.add(future);
+            }
+        }
+        assertThat(waiting).hasSize(limit);
+
+        // The leaked permits are never released, so all waiting requests are granted once the limiter is reset
+        for (ListenableFuture<Limiter.Listener> future : waiting) {
+            assertThat(future).succeedsWithin(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    public void testFixedLimitDoesNotAdapt() {
+        Limit limit = ConcurrencyLimiters.newLimit(ConcurrencyLimitStrategy.fixed(5));
+        limit.onSample(0, TimeUnit.SECONDS.toNanos(1), 5, true);
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void testGaugesReportLimiterState() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        ConcurrencyLimiters configured = new ConcurrencyLimiters(
+                Executors.newSingleThreadScheduledExecutor(),
+                registry,
+                TIMEOUT,
+                DefaultConcurrencyLimitersTest.class,
+                true,
+                ConcurrencyLimitStrategy.fixed(1),
+                ImmutableMap.of());
+        ConcurrencyLimiter limiter = configured.acquireLimiterInternal(KEY);
+        ListenableFuture<Limiter.Listener> acquired = limiter.acquire();
+        ListenableFuture<Limiter.Listener> waiting = limiter.acquire();
+
+        assertThat(gaugeValue(registry, "conjure-java-client.qos.request-permit.limit"))
+                .isEqualTo(1);
+        assertThat(gaugeValue(registry, "conjure-java-client.qos.request-permit.inflight"))
+                .isEqualTo(1);
+        assertThat(gaugeValue(registry, "conjure-java-client.qos.request-permit.queued"))
+                .isEqualTo(1);
+
+        Futures.getUnchecked(acquired).onSuccess();
+        assertThat(waiting).isDone();
+        assertThat(gaugeValue(registry, "conjure-java-client.qos.request-permit.queued"))
+                .isEqualTo(0);
+        assertThat(limiter.spanName()).isEqualTo("OkHttp: client-side-concurrency-limiter");
+    }
+
+    @Test
+    public void testLimiterSpanTags() {
+        ConcurrencyLimiter limiter = limiters.acquireLimiterInternal(KEY);
+        Futures.getUnchecked(limiter.acquire());
+        Map<String, String> tags = new HashMap<>();
+        Tags.LimiterSpanTags.INSTANCE.translate(
+                new TagTranslator.TagAdapter<Map<String, String>>() {
+                    @Override
+                    public void tag(Map<String, String> target, String key, String value) {
+                        target.put(key, value);
+                    }
+
+                    @Override
+                    public void tag(Map<String, String> target, Map<String, String> values) {
+                        target.putAll(values);
+                    }
+                },
+                tags,
+                limiter);
+
+        assertThat(tags).containsEntry("limit", "10").containsEntry("inflight", "1");
+        assertThat(Tags.LimiterSpanTags.INSTANCE.isEmpty(limiter)).isFalse();
+        assertThat(Tags.LimiterSpanTags.INSTANCE.isEmpty(ConcurrencyLimiters.NoOpConcurrencyLimiter.INSTANCE))
+                .isTrue();
+    }
+
+    @Test
+    public void testGaugeCardinalityIsBounded() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        ConcurrencyLimiters configured = new ConcurrencyLimiters(
+                Executors.newSingleThreadScheduledExecutor(),
+                registry,
+                TIMEOUT,
+                DefaultConcurrencyLimitersTest.class,
+                true);
+        for (int i = 0; i < ConcurrencyLimiters.MAX_GAUGED_LIMITERS + 10; i++) {
+            configured.acquireLimiterInternal(
+                    ImmutableKey.builder().hostname("host-" + i).build());
+        }
+        assertThat(registry.getMetrics().keySet().stream()
+                        .filter(name -> name.safeName().equals("conjure-java-client.qos.request-permit.limit")))
+                .hasSize(ConcurrencyLimiters.MAX_GAUGED_LIMITERS);
+    }
+
+    private static Object gaugeValue(TaggedMetricRegistry registry, String name) {
+        return registry.getMetrics().entrySet().stream()
+                .filter(entry -> entry.getKey().safeName().equals(name))
+                .map(entry -> ((Gauge<?>) entry.getValue()).getValue())
+                .collect(MoreCollectors.onlyElement());
+    }
+
     @SuppressWarnings("ThreadPriorityCheck")
     private Thread exhaust() {
         Thread thread = new Thread(() -> {
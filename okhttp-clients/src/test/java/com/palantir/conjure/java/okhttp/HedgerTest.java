@@ -0,0 +1,124 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.conjure.java.client.config.HedgingPolicy;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.Test;
+
+public final class HedgerTest {
+
+    private final ClientMetrics metrics = ClientMetrics.of(new DefaultTaggedMetricRegistry());
+
+    @Test
+    public void testOnlyBodilessGetsAreEligible() {
+        Hedger hedger = create(HedgingPolicy.defaults());
+        Request get = new Request.Builder().url("http://localhost").get().build();
+        Request post = new Request.Builder()
+                .url("http://localhost")
+                .post(RequestBody.create("{}", MediaType.get("application/json")))
+                .build();
+
+        assertThat(hedger.isEligible(get)).isTrue();
+        assertThat(hedger.isEligible(post)).isFalse();
+        assertThat(Hedger.disabled().isEligible(get)).isFalse();
+    }
+
+    @Test
+    public void testBudgetIsProportionalToRequests() {
+        Hedger hedger = create(HedgingPolicy.builder().budgetRatio(0.1).build());
+        assertThat(hedger.tryAcquireBudget()).isFalse();
+
+        for (int i = 0; i < 25; i++) {
+            hedger.recordRequest();
+        }
+        assertThat(hedger.tryAcquireBudget()).isTrue();
+        assertThat(hedger.tryAcquireBudget()).isTrue();
+        assertThat(hedger.tryAcquireBudget()).isFalse();
+    }
+
+    @Test
+    public void testBudgetIsCapped() {
+        Hedger hedger = create(HedgingPolicy.builder().budgetRatio(1).build());
+        for (int i = 0; i < 1000; i++) {
+            hedger.recordRequest();
+        }
+        int acquired = 0;
+        while (hedger.tryAcquireBudget()) {
+            acquired++;
+        }
+        assertThat(acquired).isEqualTo(10);
+    }
+
+    @Test
+    public void testNoDelayUntilEnoughSamples() {
+        Hedger hedger = create(HedgingPolicy.defaults());
+        for (int i = 0; i < Hedger.MIN_SAMPLES - 1; i++) {
+            hedger.recordLatency(50_000);
+        }
+        assertThat(hedger.hedgeDelayMicros()).isEqualTo(-1);
+    }
+
+    @Test
+    public void testDelayIsLatencyPercentileBoundedByMinimum() {
+        Hedger hedger = create(HedgingPolicy.builder()
+                .latencyPercentile(0.5)
+                .minimumDelay(Duration.ofMillis(1))
+                .build());
+        for (int i = 1; i <= 100; i++) {
+            hedger.recordLatency(i * 100L);
+        }
+        assertThat(hedger.hedgeDelayMicros()).isBetween(4_900L, 5_100L);
+
+        Hedger floored = create(HedgingPolicy.defaults());
+        for (int i = 0; i < Hedger.MIN_SAMPLES; i++) {
+            floored.recordLatency(100);
+        }
+        assertThat(floored.hedgeDelayMicros()).isEqualTo(Duration.ofMillis(10).toNanos() / 1000);
+    }
+
+    @Test
+    public void testDelayIsRecomputedOnRefreshExecutor() {
+        List<Runnable> refreshes = new ArrayList<>();
+        Hedger hedger = Hedger.create(HedgingPolicy.defaults(), metrics, "service", refreshes::add);
+        for (int i = 0; i < Hedger.MIN_SAMPLES; i++) {
+            hedger.recordLatency(50_000);
+        }
+
+        // the stale delay is returned until the refresh has run
+        assertThat(hedger.hedgeDelayMicros()).isEqualTo(-1);
+        assertThat(hedger.hedgeDelayMicros()).isEqualTo(-1);
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.get(0).run();
+        assertThat(hedger.hedgeDelayMicros()).isEqualTo(50_000);
+    }
+
+    /** Recomputes the delay on the calling thread, so that it can be asserted on right away. */
+    private Hedger create(HedgingPolicy policy) {
+        return Hedger.create(policy, metrics, "service", MoreExecutors.directExecutor());
+    }
+}
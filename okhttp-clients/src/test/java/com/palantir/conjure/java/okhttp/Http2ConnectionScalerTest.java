@@ -0,0 +1,250 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+import com.palantir.conjure.java.api.config.ssl.SslConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.client.config.Http2ConnectionScaling;
+import com.palantir.conjure.java.config.ssl.SslSocketFactories;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import okhttp3.Address;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Connection;
+import okhttp3.Dns;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+public final class Http2ConnectionScalerTest extends TestBase {
+
+    private static final HttpUrl URL = HttpUrl.get("https://foo:8443/api");
+    private static final HttpUrl OTHER_URL = HttpUrl.get("https://bar:8443/api");
+    private static final Http2ConnectionScaling POLICY = Http2ConnectionScaling.builder()
+            .maxConcurrentStreams(4)
+            .streamUtilizationThreshold(0.5)
+            .maxConnectionsPerHost(3)
+            .build();
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final Call call = mock(Call.class);
+    private final Http2ConnectionScaler scaler = Http2ConnectionScaler.create(POLICY, ticker);
+
+    @Test
+    public void testScalesUpPastUtilizationThreshold() {
+        Connection first = connection(Protocol.HTTP_2, 0);
+        Connection second = connection(Protocol.HTTP_2, 1);
+        assertThat(scaler.connectionFor(URL)).isZero();
+
+        scaler.connectionAcquired(call, first);
+        assertThat(scaler.connectionFor(URL)).isZero();
+        scaler.connectionAcquired(call, first);
+        assertThat(scaler.connectionFor(URL)).isEqualTo(1);
+
+        scaler.connectionAcquired(call, second);
+        scaler.connectionAcquired(call, second);
+        assertThat(scaler.connectionFor(URL)).isEqualTo(2);
+
+        // Requests return to the first connection once it drops below the threshold
+        scaler.connectionReleased(call, first);
+        assertThat(scaler.connectionFor(URL)).isZero();
+    }
+
+    @Test
+    public void testUsesLeastLoadedConnectionWhenSaturated() {
+        for (int connection = 0; connection < 3; connection++) {
+            Connection http2 = connection(Protocol.HTTP_2, connection);
+            for (int stream = 0; stream < 3 - connection + 2; stream++) {
+                scaler.connectionAcquired(call, http2);
+            }
+        }
+        assertThat(scaler.connectionFor(URL)).isEqualTo(2);
+    }
+
+    @Test
+    public void testIgnoresHttp1Connections() {
+        Connection http1 = connection(Protocol.HTTP_1_1, 0);
+        for (int i = 0; i < 10; i++) {
+            scaler.connectionAcquired(call, http1);
+        }
+        assertThat(scaler.connectionFor(URL)).isZero();
+    }
+
+    @Test
+    public void testForgetsIdleHosts() {
+        Connection foo = connection(URL, Protocol.HTTP_2, 0);
+        Connection bar = connection(OTHER_URL, Protocol.HTTP_2, 0);
+        scaler.connectionAcquired(call, foo);
+        scaler.connectionReleased(call, foo);
+        assertThat(gaugeHosts()).containsOnly("foo");
+
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        scaler.connectionAcquired(call, bar);
+        scaler.connectionReleased(call, bar);
+        assertThat(gaugeHosts()).containsOnly("bar");
+
+        // A forgotten host is counted again once used
+        scaler.connectionAcquired(call, foo);
+        scaler.connectionAcquired(call, foo);
+        assertThat(gaugeHosts()).containsOnly("foo", "bar");
+        assertThat(scaler.connectionFor(URL)).isEqualTo(1);
+    }
+
+    @Test
+    public void testDoesNotForgetHostsWithRequestsInFlight() {
+        Connection foo = connection(URL, Protocol.HTTP_2, 0);
+        Connection bar = connection(OTHER_URL, Protocol.HTTP_2, 0);
+        scaler.connectionAcquired(call, foo);
+        scaler.connectionAcquired(call, foo);
+
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        scaler.connectionAcquired(call, bar);
+        scaler.connectionReleased(call, bar);
+        assertThat(gaugeHosts()).containsOnly("foo", "bar");
+        assertThat(scaler.connectionFor(URL)).isEqualTo(1);
+    }
+
+    @Test
+    public void testOpensDistinctConnectionsUnderLoad() throws Exception {
+        CountDownLatch respond = new CountDownLatch(1);
+        try (MockWebServer server = new MockWebServer()) {
+            server.useHttps(
+                    SslSocketFactories.createSslSocketFactory(SslConfiguration.of(
+                            Paths.get("src/test/resources/trustStore.jks"),
+                            Paths.get("src/test/resources/keyStore.jks"),
+                            "keystore")),
+                    false);
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest _request) throws InterruptedException {
+                    respond.await();
+                    return new MockResponse().setBody("pong");
+                }
+            });
+            server.start();
+            String url = server.url("/").toString();
+            OkHttpClient client = OkHttpClients.withStableUris(
+                    ClientConfiguration.builder()
+                            .from(createTestConfig(url))
+                            .enableHttp2(true)
+                            .http2ConnectionScaling(Http2ConnectionScaling.builder()
+                                    .maxConcurrentStreams(2)
+                                    .streamUtilizationThreshold(0.5)
+                                    .maxConnectionsPerHost(3)
+                                    .build())
+                            .build(),
+                    NoOpHostEventsSink.INSTANCE,
+                    Http2ConnectionScalerTest.class);
+
+            // Each request is in flight before the next one chooses its connection
+            List<CompletableFuture<String>> responses = new ArrayList<>();
+            List<RecordedRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                responses.add(enqueue(client.newCall(new Request.Builder().url(url).build())));
+                requests.add(server.takeRequest());
+            }
+            respond.countDown();
+            for (CompletableFuture<String> response : responses) {
+                assertThat(response.get(10, TimeUnit.SECONDS)).isEqualTo("pong");
+            }
+
+            // Sequence numbers count the requests on each connection, so a zero starts a new connection, and the
+            // fourth request shares the least loaded one
+            assertThat(requests)
+                    .extracting(RecordedRequest::getSequenceNumber)
+                    .containsExactly(0, 0, 0, 1);
+            assertThat(server.getConnectionCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testDisabledUsesSingleConnection() {
+        assertThat(Http2ConnectionScaler.disabled().connectionFor(URL)).isZero();
+        assertThat(Http2ConnectionScaler.disabled().maxConnectionsPerHost()).isEqualTo(1);
+    }
+
+    private Set<String> gaugeHosts() {
+        return scaler.getMetrics().keySet().stream()
+                .map(name -> name.safeTags().get("hostname"))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static CompletableFuture<String> enqueue(Call call) {
+        CompletableFuture<String> body = new CompletableFuture<>();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call _call, IOException exception) {
+                body.completeExceptionally(exception);
+            }
+
+            @Override
+            public void onResponse(Call _call, Response response) throws IOException {
+                try (response) {
+                    body.complete(response.body().string());
+                }
+            }
+        });
+        return body;
+    }
+
+    private static Connection connection(Protocol protocol, int index) {
+        return connection(URL, protocol, index);
+    }
+
+    private static Connection connection(HttpUrl url, Protocol protocol, int index) {
+        Address address = mock(Address.class);
+        when(address.url()).thenReturn(url.newBuilder().encodedPath("/").build());
+        when(address.dns()).thenReturn(Http2ConnectionScaler.dns(Dns.SYSTEM, index));
+        Route route = mock(Route.class);
+        when(route.address()).thenReturn(address);
+        Connection connection = mock(Connection.class);
+        when(connection.route()).thenReturn(route);
+        when(connection.protocol()).thenReturn(protocol);
+        return connection;
+    }
+}
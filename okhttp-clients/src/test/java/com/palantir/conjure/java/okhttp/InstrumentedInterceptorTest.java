@@ -117,6 +117,19 @@ public final class InstrumentedInterceptorTest {
         assertThat(hostMetrics.getMetrics()).isEmpty();
     }
 
+    @Test
+    public void testHostLoadBalancedOnUncheckedException() throws IOException {
+        HostLoadTracker hostLoads = HostLoadTracker.create();
+        InstrumentedInterceptor balancedInterceptor =
+                new InstrumentedInterceptor(ClientMetrics.of(registry), hostMetrics, hostLoads, "client");
+        when(chain.request()).thenReturn(REQUEST_A);
+        when(chain.proceed(REQUEST_A)).thenThrow(new IllegalStateException("from a later interceptor"));
+
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> balancedInterceptor.intercept(chain));
+
+        assertThat(hostLoads.forHost("hosta", PORT).inflight()).isZero();
+    }
+
     private HostMetrics hostMetrics(String hostname, int port) {
         Collection<HostMetrics> matching = Collections2.filter(
                 hostMetrics.getMetrics(), metrics -> metrics.hostname().equals(hostname) && metrics.port() == port);
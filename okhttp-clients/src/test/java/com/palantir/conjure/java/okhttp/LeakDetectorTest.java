@@ -18,6 +18,8 @@ package com.palantir.conjure.java.okhttp;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -34,8 +36,7 @@ public class LeakDetectorTest {
         leakDetector.register(toUnregister, Optional.empty());
         Optional<RuntimeException> exception = Optional.of(new RuntimeException());
         leakDetector.register(new String("this will be leaked".toCharArray()), exception);
-        System.gc();
-        leakDetector.register("this will trigger detection", Optional.empty());
+        collectAndTriggerDetection();
         assertThat(leaks).containsExactly(exception);
         leakDetector.unregister(toUnregister);
     }
@@ -46,8 +47,29 @@ public class LeakDetectorTest {
         leakDetector.register(track, Optional.empty());
         leakDetector.unregister(track);
 
-        System.gc();
-        leakDetector.register("trigger", Optional.empty());
+        collectAndTriggerDetection();
         assertThat(leaks).isEmpty();
     }
+
+    @Test
+    public void unregistersByIdentity() {
+        String unregistered = new String("equal".toCharArray());
+        leakDetector.register(unregistered, Optional.empty());
+        Optional<RuntimeException> exception = Optional.of(new RuntimeException());
+        leakDetector.register(new String("equal".toCharArray()), exception);
+        leakDetector.unregister(unregistered);
+
+        collectAndTriggerDetection();
+        assertThat(leaks).containsExactly(exception);
+        assertThat(unregistered).isEqualTo("equal");
+    }
+
+    /** Collected references are enqueued by the JVM shortly after the collection, so detection may take a few tries. */
+    private void collectAndTriggerDetection() {
+        System.gc();
+        for (int attempt = 0; attempt < 50 && leaks.isEmpty(); attempt++) {
+            Uninterruptibles.sleepUninterruptibly(Duration.ofMillis(10));
+            leakDetector.register("trigger", Optional.empty());
+        }
+    }
 }
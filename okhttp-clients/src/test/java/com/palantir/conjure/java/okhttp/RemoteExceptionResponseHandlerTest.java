@@ -37,6 +37,7 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import javax.annotation.CheckForNull;
 import okhttp3.Protocol;
@@ -177,6 +178,16 @@ public final class RemoteExceptionResponseHandlerTest {
         assertThat(decode(MediaType.APPLICATION_JSON, STATUS_500, null)).isEmpty();
     }
 
+    @Test
+    public void handlesBufferedBody() {
+        okhttp3.Response response = response(STATUS_500, MediaType.APPLICATION_JSON, null);
+        RemoteException exception = handler.handle(response, SERIALIZED_EXCEPTION.getBytes(StandardCharsets.UTF_8))
+                .get();
+        assertThat(exception.getStatus()).isEqualTo(STATUS_500);
+        assertThat(exception.getError().errorInstanceId()).isEqualTo(SERVICE_EXCEPTION.getErrorInstanceId());
+        assertThat(handler.handle(response, null)).isEmpty();
+    }
+
     private static Optional<RemoteException> encodeAndDecode(Exception exception) {
         Preconditions.checkArgument(!(exception instanceof ServiceException), "Use SerializableError#forException");
         Object error = SerializableError.builder()
@@ -0,0 +1,120 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+
+import com.palantir.conjure.java.client.config.RetryBudgetPolicy;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public final class RetryBudgetTest {
+
+    private final ClientMetrics metrics = ClientMetrics.of(new DefaultTaggedMetricRegistry());
+
+    @Mock
+    private Clock clock;
+
+    private long nowMillis;
+
+    @BeforeEach
+    public void before() {
+        nowMillis = 1_000_000;
+        lenient().when(clock.millis()).thenAnswer(_invocation -> nowMillis);
+    }
+
+    @Test
+    public void testRetriesAreLimitedToRatioOfRequests() {
+        RetryBudget budget = new RetryBudget(
+                RetryBudgetPolicy.builder().retryRatio(0.1).minRetriesPerSecond(0).build(),
+                metrics,
+                "service",
+                clock);
+        assertThat(budget.tryAcquire()).isFalse();
+
+        for (int i = 0; i < 20; i++) {
+            budget.recordRequest();
+        }
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+
+        assertThat(metrics.retryGranted("service").getCount()).isEqualTo(2);
+        assertThat(metrics.retryDenied("service").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testMinimumRetriesAreAllowedWithoutRequests() {
+        RetryBudget budget = new RetryBudget(
+                RetryBudgetPolicy.builder()
+                        .retryRatio(0)
+                        .minRetriesPerSecond(1)
+                        .window(Duration.ofSeconds(3))
+                        .build(),
+                metrics,
+                "service",
+                clock);
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void testBudgetRecoversAsWindowSlides() {
+        RetryBudget budget = new RetryBudget(
+                RetryBudgetPolicy.builder()
+                        .retryRatio(0.5)
+                        .minRetriesPerSecond(0)
+                        .window(Duration.ofSeconds(2))
+                        .build(),
+                metrics,
+                "service",
+                clock);
+        budget.recordRequest();
+        budget.recordRequest();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+
+        nowMillis += 1_000;
+        // the first second's requests and retry are still in the window
+        assertThat(budget.tryAcquire()).isFalse();
+
+        nowMillis += 1_000;
+        budget.recordRequest();
+        budget.recordRequest();
+        // the first second's requests and retry have expired
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void testUnlimitedAlwaysAllowsRetries() {
+        RetryBudget budget = RetryBudget.unlimited();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(budget.tryAcquire()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.logsafe.exceptions.SafeIoException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Random;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.ForwardingSink;
+import okio.Okio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public final class StreamingRequestBodiesTest extends TestBase {
+    private static final MediaType OCTET_STREAM = MediaType.get("application/octet-stream");
+
+    private final MockWebServer server = new MockWebServer();
+    private final HostMetricsRegistry hostEventsSink = new HostMetricsRegistry();
+
+    private OkHttpClient client;
+    private String url;
+
+    @BeforeEach
+    public void before() throws IOException {
+        server.start();
+        url = "http://localhost:" + server.getPort();
+        client = OkHttpClients.withStableUris(
+                ClientConfiguration.builder()
+                        .from(createTestConfig(url))
+                        .maxNumRetries(1)
+                        .backoffSlotSize(Duration.ofMillis(10))
+                        .build(),
+                hostEventsSink,
+                StreamingRequestBodiesTest.class);
+    }
+
+    @AfterEach
+    public void after() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testFileBodyIsSentWithLengthAndRetried(@TempDir Path directory) throws Exception {
+        byte[] contents = new byte[3 * 1024 * 1024 + 17];
+        new Random(0).nextBytes(contents);
+        Path file = Files.write(directory.resolve("upload"), contents);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("done"));
+
+        assertThat(post(StreamingRequestBodies.ofFile(OCTET_STREAM, file))).isEqualTo("done");
+
+        for (int i = 0; i < 2; i++) {
+            RecordedRequest request = server.takeRequest();
+            assertThat(request.getHeader("Content-Length")).isEqualTo(Integer.toString(contents.length));
+            assertThat(request.getBody().readByteString()).isEqualTo(ByteString.of(contents));
+        }
+    }
+
+    @Test
+    public void testFileTruncatedWhileBeingSentFails(@TempDir Path directory) throws IOException {
+        Path file = Files.write(directory.resolve("upload"), new byte[64 * 1024]);
+        BufferedSink truncatingSink = Okio.buffer(new ForwardingSink(Okio.blackhole()) {
+            @Override
+            public void write(Buffer source, long byteCount) throws IOException {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(0);
+                }
+                super.write(source, byteCount);
+            }
+        });
+
+        assertThatThrownBy(() -> StreamingRequestBodies.ofFile(OCTET_STREAM, file)
+                        .writeTo(truncatingSink))
+                .isInstanceOf(SafeIoException.class)
+                .hasMessageContaining("File changed while it was being sent");
+    }
+
+    @Test
+    public void testReplayableBodyIsRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("done"));
+
+        assertThat(post(StreamingRequestBodies.replayable(OCTET_STREAM, sink -> sink.writeUtf8("hello"))))
+                .isEqualTo("done");
+
+        assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo("hello");
+        RecordedRequest retry = server.takeRequest();
+        assertThat(retry.getChunkSizes()).isNotEmpty();
+        assertThat(retry.getBody().readUtf8()).isEqualTo("hello");
+    }
+
+    @Test
+    public void testOneShotBodyIsNotRetried() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        RequestBody body = StreamingRequestBodies.oneShot(
+                OCTET_STREAM, sink -> sink.write("hello".getBytes(StandardCharsets.UTF_8)));
+        assertThatThrownBy(() -> post(body))
+                .isInstanceOf(SafeIoException.class)
+                .hasMessage("Cannot retry streamed HTTP body");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    private String post(RequestBody body) throws IOException {
+        try (Response response = client.newCall(
+                        new Request.Builder().url(url).post(body).build())
+                .execute()) {
+            return response.body().string();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.tracing.DetachedSpan;
+import com.palantir.tracing.Observability;
+import com.palantir.tracing.Tracer;
+import com.palantir.tracing.Tracers;
+import com.palantir.tracing.api.SpanType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public final class TagsTest {
+
+    @AfterEach
+    public void after() {
+        Tracer.getAndClearTrace();
+    }
+
+    @Test
+    public void testObservableWithoutTrace() {
+        assertThat(Tags.isObservable()).isTrue();
+    }
+
+    @Test
+    public void testObservableInSampledTrace() {
+        Tracer.initTraceWithSpan(Observability.SAMPLE, Tracers.randomId(), "test", SpanType.LOCAL);
+        assertThat(Tags.isObservable()).isTrue();
+    }
+
+    @Test
+    public void testNotObservableInUnsampledTrace() {
+        Tracer.initTraceWithSpan(Observability.DO_NOT_SAMPLE, Tracers.randomId(), "test", SpanType.LOCAL);
+        assertThat(Tags.isObservable()).isFalse();
+    }
+
+    @Test
+    public void testNextAttemptPreservesObservability() {
+        DetachedSpan entireSpan = DetachedSpan.start("test");
+        Tags.AttemptSpan attempt = Tags.AttemptSpan.createAttempt(entireSpan, 0, false);
+        Tags.AttemptSpan next = attempt.nextAttempt(entireSpan);
+
+        assertThat(next.attemptNumber()).isEqualTo(1);
+        assertThat(next.observable()).isFalse();
+        entireSpan.complete();
+    }
+}
@@ -53,6 +53,43 @@ public final class ThreadWorkQueueTests {
         assertThat(queue.remove()).isEqualTo(4);
     }
 
+    @Test
+    public void testPrioritizesBySubmittingThreadId() {
+        queue.add(1, 1);
+        queue.add(1, 2);
+        queue.add(2, 3);
+        queue.add(1, 4);
+        assertThat(dequeue()).containsExactly(1, 3, 2, 4);
+    }
+
+    @Test
+    public void testRoundRobinAcrossManyThreads() {
+        // Enough threads and elements for the queue to grow several times
+        for (int element = 0; element < 1000; element++) {
+            queue.add(element % 100, element);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int element = 0; element < 1000; element++) {
+            expected.add(element);
+        }
+        assertThat(dequeue()).containsExactlyElementsOf(expected);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    public void testReusesThreadsAfterTheyEmpty() {
+        for (int round = 0; round < 3; round++) {
+            for (int thread = 0; thread < 50; thread++) {
+                queue.add(thread, thread);
+            }
+            assertThat(queue.size()).isEqualTo(50);
+            for (int thread = 0; thread < 50; thread++) {
+                assertThat(queue.remove()).isEqualTo(thread);
+            }
+            assertThat(queue.isEmpty()).isTrue();
+        }
+    }
+
     private List<Integer> dequeue() {
         List<Integer> result = new ArrayList<>();
         while (!queue.isEmpty()) {
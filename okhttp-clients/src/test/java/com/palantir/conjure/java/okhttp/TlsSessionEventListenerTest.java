@@ -0,0 +1,102 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.java.okhttp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Meter;
+import com.palantir.conjure.java.api.config.ssl.SslConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.config.ssl.SslSocketFactories;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.nio.file.Paths;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class TlsSessionEventListenerTest extends TestBase {
+
+    private final MockWebServer server = new MockWebServer();
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+
+    @BeforeEach
+    public void before() throws IOException {
+        SslConfiguration serverConfig = SslConfiguration.of(
+                Paths.get("src/test/resources/trustStore.jks"),
+                Paths.get("src/test/resources/keyStore.jks"),
+                "keystore");
+        server.useHttps(SslSocketFactories.createSslSocketFactory(serverConfig), false);
+        server.start();
+    }
+
+    @AfterEach
+    public void after() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testReconnectsResumeTlsSessions() throws IOException {
+        server.enqueue(new MockResponse().setBody("pong"));
+        server.enqueue(new MockResponse().setBody("pong"));
+        server.enqueue(new MockResponse().setBody("pong"));
+        String url = server.url("/").toString();
+        OkHttpClient client = OkHttpClients.withStableUris(
+                ClientConfiguration.builder()
+                        .from(createTestConfig(url))
+                        .taggedMetricRegistry(registry)
+                        .tlsSessionCacheSize(16)
+                        .build(),
+                NoOpHostEventsSink.INSTANCE,
+                TlsSessionEventListenerTest.class);
+
+        execute(client, url);
+        assertThat(handshakes("new").getCount()).isEqualTo(1);
+
+        // A pooled connection involves no handshake
+        execute(client, url);
+        assertThat(handshakes("new").getCount()).isEqualTo(1);
+        assertThat(handshakes("resumed").getCount()).isZero();
+
+        // Force a new connection, as after idle eviction
+        client.connectionPool().evictAll();
+        execute(client, url);
+        assertThat(handshakes("resumed").getCount()).isEqualTo(1);
+        assertThat(handshakes("new").getCount()).isEqualTo(1);
+    }
+
+    private static void execute(OkHttpClient client, String url) throws IOException {
+        try (Response response =
+                client.newCall(new Request.Builder().url(url).build()).execute()) {
+            assertThat(response.body().string()).isEqualTo("pong");
+        }
+    }
+
+    private Meter handshakes(String session) {
+        return ClientMetrics.of(registry)
+                .tlsHandshake()
+                .session(session)
+                .serviceName(TlsSessionEventListenerTest.class.getSimpleName())
+                .build();
+    }
+}
@@ -156,6 +156,25 @@ public final class UrlSelectorImplTest extends TestBase {
                 .isTrue();
     }
 
+    @Test
+    public void testRedirectToNext_matchesLongestBasePath() {
+        UrlSelectorImpl selector =
+                UrlSelectorImpl.create(list("http://foo/a", "http://foo/a/b", "http://bar/a/b"), false);
+
+        // http://foo/a/b is the most specific base URL, so the next one is http://bar/a/b
+        assertThat(selector.redirectToNext(parse("http://foo/a/b/c?d=/e#f")))
+                .contains(parse("http://bar/a/b/c?d=/e#f"));
+        assertThat(selector.redirectToNext(parse("http://bar/a/b/c"))).contains(parse("http://foo/a/b/c"));
+    }
+
+    @Test
+    public void testRedirectToNext_queryDoesNotMatchBasePath() {
+        UrlSelectorImpl selector = UrlSelectorImpl.create(list("http://foo/a/b", "http://bar/a"), false);
+
+        // http://foo/a?/b is not under http://foo/a/b, so we continue from the current base URL
+        assertThat(selector.redirectToNext(parse("http://foo/a?/b"))).contains(parse("http://bar/a?/b"));
+    }
+
     @Test
     public void testRedirectToNext_updatesCurrentPointer() {
         UrlSelectorImpl selector = UrlSelectorImpl.create(list("http://foo/a", "http://bar/a"), false);
@@ -321,6 +340,94 @@ public final class UrlSelectorImplTest extends TestBase {
         assertThat(selector.redirectToNext(requestUrl)).contains(HttpUrl.parse("http://bar/a/b/path"));
     }
 
+    @Test
+    public void testAlternativeTo_doesNotMovePinnedUrl() {
+        UrlSelectorImpl selector = UrlSelectorImpl.create(list("http://foo/a", "http://bar/a", "http://baz/a"), false);
+        HttpUrl requestUrl = HttpUrl.parse("http://ignored/a/b/path");
+
+        HttpUrl pinned = selector.redirectToCurrent(requestUrl).get();
+        assertThat(pinned).isEqualTo(HttpUrl.parse("http://foo/a/b/path"));
+
+        assertThat(selector.alternativeTo(pinned)).contains(HttpUrl.parse("http://bar/a/b/path"));
+        assertThat(selector.alternativeTo(pinned)).contains(HttpUrl.parse("http://bar/a/b/path"));
+        assertThat(selector.redirectToCurrent(requestUrl)).contains(pinned);
+    }
+
+    @Test
+    public void testAlternativeTo_skipsUrlsCoolingDown() {
+        Duration failedUrlCooldown = Duration.ofMillis(100);
+        UrlSelectorImpl selector = UrlSelectorImpl.createWithFailedUrlCooldown(
+                list("http://foo/a", "http://bar/a"), false, failedUrlCooldown, clock);
+        HttpUrl requestUrl = HttpUrl.parse("http://foo/a/b/path");
+
+        selector.markAsFailed(HttpUrl.parse("http://bar/a/b/path"));
+        assertThat(selector.alternativeTo(requestUrl)).isEmpty();
+
+        when(clock.instant()).thenReturn(Instant.EPOCH.plus(failedUrlCooldown));
+        assertThat(selector.alternativeTo(requestUrl)).contains(HttpUrl.parse("http://bar/a/b/path"));
+        assertThat(selector.redirectToCurrent(requestUrl)).contains(requestUrl);
+    }
+
+    @Test
+    public void testRedirectToBalanced_prefersLessLoadedNode() {
+        HostLoadTracker hostLoads = HostLoadTracker.create();
+        UrlSelectorImpl selector = UrlSelectorImpl.createWithFailedUrlCooldown(
+                list("http://foo/a", "http://bar/a"), false, Duration.ZERO, clock, hostLoads);
+        HttpUrl requestUrl = HttpUrl.parse("http://ignored/a/b/path");
+
+        HostLoadTracker.HostLoad foo = hostLoads.forUrl(HttpUrl.parse("http://foo/a"));
+        HostLoadTracker.HostLoad bar = hostLoads.forUrl(HttpUrl.parse("http://bar/a"));
+        foo.requestStarted();
+        foo.requestFinished(100);
+        bar.requestStarted();
+        bar.requestFinished(5_000);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(selector.redirectToBalanced(requestUrl)).contains(HttpUrl.parse("http://foo/a/b/path"));
+        }
+
+        // enough requests in flight outweigh the lower latency
+        for (int i = 0; i < 100; i++) {
+            foo.requestStarted();
+        }
+        assertThat(selector.redirectToBalanced(requestUrl)).contains(HttpUrl.parse("http://bar/a/b/path"));
+    }
+
+    @Test
+    public void testRedirectToBalanced_avoidsFailedNodes() {
+        Duration failedUrlCooldown = Duration.ofMillis(100);
+        HostLoadTracker hostLoads = HostLoadTracker.create();
+        UrlSelectorImpl selector = UrlSelectorImpl.createWithFailedUrlCooldown(
+                list("http://foo/a", "http://bar/a"), false, failedUrlCooldown, clock, hostLoads);
+        HttpUrl requestUrl = HttpUrl.parse("http://ignored/a/b/path");
+
+        HostLoadTracker.HostLoad foo = hostLoads.forUrl(HttpUrl.parse("http://foo/a"));
+        foo.requestStarted();
+        foo.requestFinished(5_000);
+        selector.markAsFailed(HttpUrl.parse("http://bar/a/b/path"));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(selector.redirectToBalanced(requestUrl)).contains(HttpUrl.parse("http://foo/a/b/path"));
+        }
+    }
+
+    @Test
+    public void testHostLoadEwma() {
+        HostLoadTracker.HostLoad load = HostLoadTracker.create().forHost("foo", 80);
+        assertThat(load.score()).isZero();
+
+        load.requestStarted();
+        assertThat(load.inflight()).isOne();
+        load.requestFinished(1000);
+        assertThat(load.inflight()).isZero();
+        assertThat(load.ewmaMicros()).isEqualTo(1000);
+
+        load.requestStarted();
+        load.requestFinished(2000);
+        assertThat(load.ewmaMicros()).isEqualTo(1000 + HostLoadTracker.ALPHA * 1000);
+        assertThat(HostLoadTracker.disabled().forHost("foo", 80).score()).isZero();
+    }
+
     @Test
     public void testWorksWithWebSockets() {
         Request wsRequest = new Request.Builder().url("wss://foo/a").build();